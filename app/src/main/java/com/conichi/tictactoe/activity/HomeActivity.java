@@ -9,8 +9,11 @@ import android.support.v7.app.ActionBarActivity;
 import android.support.v7.widget.Toolbar;
 import android.view.MenuItem;
 
+import java.io.File;
+
 import com.conichi.tictactoe.R;
 import com.conichi.tictactoe.fragment.HomeFragment;
+import com.conichi.tictactoe.service.AIService;
 import com.google.android.gms.ads.AdRequest;
 import com.google.android.gms.ads.AdView;
 
@@ -25,9 +28,17 @@ public class HomeActivity extends ActionBarActivity {
     @Bind(R.id.ad_view)
     AdView mAdView;
 
+    //the file the solved positions are saved to after they are generated on the first launch
+    private static final String OPENING_BOOK_FILE = "opening_book.bin";
+    //the file the best moves of the searches are kept in, so the next launches play the same positions at once
+    private static final String EVALUATION_CACHE_FILE = "evaluation_cache.bin";
+
     //used to monitor the backStackEntryCount
     private int backStackEntryCount = 0;
 
+    //finds the AI moves in the background, and loads the opening book there before the first move
+    private AIService aiService;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -42,8 +53,14 @@ public class HomeActivity extends ActionBarActivity {
 
         setAds();
 
-        //sets the HomeFragment
-        setCurrentFragment(new HomeFragment());
+        //sets the HomeFragment, unless the activity is recreated, then the fragment manager restores the fragments
+        //with their back stack, and the game restores its state
+        if (savedInstanceState == null) {
+            setCurrentFragment(new HomeFragment());
+        } else {
+            backStackEntryCount = getSupportFragmentManager().getBackStackEntryCount();
+            setActionBarArrowDependingOnFragmentsBackStack();
+        }
     }
 
     /** Called when leaving the activity */
@@ -70,6 +87,9 @@ public class HomeActivity extends ActionBarActivity {
         if (mAdView != null) {
             mAdView.destroy();
         }
+        if (aiService != null) {
+            aiService.shutdown();
+        }
         super.onDestroy();
     }
 
@@ -154,6 +174,17 @@ public class HomeActivity extends ActionBarActivity {
         mAdView.loadAd(adRequest);
     }
 
+    //get the AI service, the opening book it uses is loaded from the app's files, or generated and saved there on the first launch,
+    //and the moves it searches are cached in the app's files too
+    public AIService getAIService() {
+        if (aiService == null) {
+            aiService = new AIService(new File(getFilesDir(), OPENING_BOOK_FILE),
+                    new File(getFilesDir(), EVALUATION_CACHE_FILE));
+        }
+
+        return aiService;
+    }
+
     //sets a current fragment for the activity with a fade animation
     public void setCurrentFragment(Fragment newFragment) {
         FragmentTransaction transaction = getSupportFragmentManager().beginTransaction();
@@ -7,14 +7,21 @@ import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
 import android.support.v7.app.AlertDialog;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.LinearLayout;
 
 import com.conichi.tictactoe.R;
+import com.conichi.tictactoe.activity.HomeActivity;
+import com.conichi.tictactoe.engine.Difficulty;
 import com.conichi.tictactoe.entity.Board;
 import com.conichi.tictactoe.entity.Point;
+import com.conichi.tictactoe.entity.PositionCodec;
+import com.conichi.tictactoe.service.AIService;
 
 import butterknife.Bind;
 import butterknife.ButterKnife;
@@ -25,19 +32,38 @@ public class GameFragment extends Fragment implements View.OnClickListener {
     LinearLayout layoutGame;
 
     public static final String AI_SIGN = "ai_sign";
+    public static final String TITLE = "title";
+    public static final String DIFFICULTY = "difficulty";
 
-    //Board coordinates that will be attached to the buttons
-    private static final int[][] POINTS = {
-            {0,0}, {0,1}, {0,2},
-            {1,0}, {1,1}, {1,2},
-            {2,0}, {2,1}, {2,2}};
+    //the key of the game state in the saved instance state, the position and the player on move packed into a long,
+    //so the game survives rotations and the process being killed in the background
+    private static final String GAME_STATE = "game_state";
+    //the keys of the cells of the move history and the number of them on the board, so undo and redo survive too
+    private static final String GAME_HISTORY = "game_history";
+    private static final String GAME_HISTORY_SIZE = "game_history_size";
 
-    //the value of the AI player, which is null if the game is Human vs Human
+    //the longest time in milliseconds the AI may search for a move which is not in the opening book
+    private static final long AI_TIME_LIMIT = 1000;
+
+    //the value of the AI player, which is null if the game is Human vs Human, and the level it plays at
     private Board.Value AIValue;
+    private Difficulty difficulty = Difficulty.UNBEATABLE;
     //the value of the last player in the Human vs Human game, by default it is O so that the X player will play first
     private Board.Value lastPlayerValue = Board.Value.O;
     //initialize board
     private Board board = new Board();
+    //the service which finds the AI moves in the background, it is shared by all games of the activity
+    private AIService aiService;
+    //the button of every cell by its index, and the value every button shows, so after a move only the buttons
+    //of the cells which changed are updated, without looking the buttons up in the layout
+    private Button[] cellButtons;
+    private Board.Value[] shownValues;
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setHasOptionsMenu(true);
+    }
 
     @Nullable
     @Override
@@ -45,75 +71,257 @@ public class GameFragment extends Fragment implements View.OnClickListener {
         View view = inflater.inflate(R.layout.fragment_game, container, false);
         ButterKnife.bind(this, view);
 
+        aiService = ((HomeActivity) getActivity()).getAIService();
+
         setButtons();
-        setAIPlayer();
+        if (savedInstanceState != null) {
+            restoreGame(savedInstanceState.getLong(GAME_STATE), savedInstanceState.getIntArray(GAME_HISTORY),
+                    savedInstanceState.getInt(GAME_HISTORY_SIZE));
+        } else {
+            setAIPlayer();
+        }
 
         return view;
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        //the title is set again when the activity is recreated with the game on top
+        if (getArguments() != null && getArguments().getString(TITLE) != null) {
+            getActivity().setTitle(getArguments().getString(TITLE));
+        }
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putLong(GAME_STATE, PositionCodec.encode(board, getPlayerOnMove()));
+
+        int[] history = new int[board.getHistoryLength()];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = board.getHistoryCell(i);
+        }
+        outState.putIntArray(GAME_HISTORY, history);
+        outState.putInt(GAME_HISTORY_SIZE, board.getHistorySize());
+    }
+
+    @Override
+    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
+        inflater.inflate(R.menu.menu_game, menu);
+    }
+
+    @Override
+    public void onPrepareOptionsMenu(Menu menu) {
+        menu.findItem(R.id.action_undo).setEnabled(canUndo());
+        menu.findItem(R.id.action_redo).setEnabled(board.canRedo());
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.action_undo:
+                undo();
+                return true;
+            case R.id.action_redo:
+                redo();
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
+    //X always plays first, so the player on move follows from the number of moves
+    private Board.Value getPlayerOnMove() {
+        return board.getMoveCount() % 2 == 0 ? Board.Value.X : Board.Value.O;
+    }
+
+    //against the AI a move can be taken back if the human has played one, in the AI Vs Human game the first move is the AI's
+    private boolean canUndo() {
+        return board.getHistorySize() > (AIValue == Board.Value.X ? 1 : 0);
+    }
+
+    //take back the last move, against the AI the moves are taken back until the human is on move again,
+    //and the AI move which is being searched is cancelled
+    private void undo() {
+        if (!canUndo()) {
+            return;
+        }
+
+        aiService.cancel();
+        board.undoMove();
+        while (AIValue != null && getPlayerOnMove() == AIValue) {
+            board.undoMove();
+        }
+
+        lastPlayerValue = getPlayerOnMove() == Board.Value.X ? Board.Value.O : Board.Value.X;
+        updateButtons();
+    }
+
+    //play the last move which was taken back again, against the AI its answer is redone too,
+    //or searched if it was never played
+    private void redo() {
+        if (!board.canRedo()) {
+            return;
+        }
+
+        board.redoMove();
+        while (AIValue != null && getPlayerOnMove() == AIValue && board.canRedo()) {
+            board.redoMove();
+        }
+
+        lastPlayerValue = getPlayerOnMove() == Board.Value.X ? Board.Value.O : Board.Value.X;
+        updateButtons();
+
+        if (!checkIfGameOver() && AIValue == getPlayerOnMove()) {
+            playAI();
+        }
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        //the game is abandoned, so the AI move is not needed anymore
+        aiService.cancel();
         ButterKnife.unbind(this);
     }
 
-    //set buttons by looping through all parent view's children, clearing texts
-    //and setting points as button tags so we can access them in the OnClickListener
+    //set buttons by looping through all parent view's children once, clearing texts
+    //and setting cell indexes as button tags so we can access them in the OnClickListener
+    //every row layout is a row of the board, so the cell of a button is its row and its position in the row
     private void setButtons() {
-        int pointIndex = 0;
+        cellButtons = new Button[board.getCellCount()];
+        shownValues = new Board.Value[board.getCellCount()];
 
         for (int i = 0; i < layoutGame.getChildCount(); i++) {
             LinearLayout view = (LinearLayout) layoutGame.getChildAt(i);
             for (int j = 0; j < view.getChildCount(); j++) {
+                int cell = i * board.getSize() + j;
                 Button button = (Button) view.getChildAt(j);
                 button.setOnClickListener(this);
                 button.setText("");
+                button.setTag(cell);
+
+                cellButtons[cell] = button;
+                shownValues[cell] = Board.Value.EMPTY;
+            }
+        }
+    }
 
-                int[] pointCoordinates = POINTS[pointIndex];
-                Point point = new Point(pointCoordinates[0], pointCoordinates[1]);
-                button.setTag(point);
+    //compare the board with the values the buttons show, and update the text and the color of the buttons which differ
+    private void updateButtons() {
+        for (int cell = 0; cell < cellButtons.length; cell++) {
+            Board.Value value = board.getValue(cell / board.getSize(), cell % board.getSize());
 
-                pointIndex++;
+            if (value != shownValues[cell]) {
+                Button button = cellButtons[cell];
+                button.setText(value == Board.Value.EMPTY ? "" : value.name());
+                button.setTextColor(getValueColor(value));
+                shownValues[cell] = value;
             }
         }
+
+        //undo and redo depend on the moves
+        getActivity().supportInvalidateOptionsMenu();
     }
 
     //getting AI player value from the Fragment's arguments, if selected value is X, AI draws first
     private void setAIPlayer() {
+        readAIPlayer();
+
+        if (AIValue == Board.Value.X) {
+            playAI();
+        }
+    }
+
+    private void readAIPlayer() {
         Bundle bundle = getArguments();
         if (bundle != null && bundle.getString(AI_SIGN) != null) {
             AIValue = Board.Value.valueOf(bundle.getString(AI_SIGN));
+        }
+        if (bundle != null && bundle.getString(DIFFICULTY) != null) {
+            difficulty = Difficulty.valueOf(bundle.getString(DIFFICULTY));
+        }
+    }
+
+    //rebuild the board and the buttons from the saved game state, the played moves are not searched again,
+    //only the move of the AI is searched if it was on move, and the Game Over dialog is shown again if the game is over
+    //the history is replayed on an empty board, and it is only kept if it leads to the saved position
+    private void restoreGame(long state, int[] history, int historySize) {
+        board = PositionCodec.decodePosition(state, Board.DEFAULT_SIZE, Board.DEFAULT_WIN_LENGTH);
+        Board.Value playerOnMove = PositionCodec.decodePlayer(state);
+
+        if (history != null) {
+            Board replayed = new Board();
+            for (int i = 0; i < history.length; i++) {
+                replayed.pushMove(history[i], i % 2 == 0 ? Board.Value.X : Board.Value.O);
+            }
+            for (int i = history.length; i > historySize; i--) {
+                replayed.undoMove();
+            }
 
-            if (AIValue == Board.Value.X) {
-                playAI();
+            if (PositionCodec.encode(replayed) == PositionCodec.encode(board)) {
+                board = replayed;
             }
         }
+        lastPlayerValue = playerOnMove == Board.Value.X ? Board.Value.O : Board.Value.X;
+        readAIPlayer();
+        updateButtons();
+
+        if (!checkIfGameOver() && AIValue == playerOnMove) {
+            playAI();
+        }
     }
 
-    //firstly the Alpha-Beta pruning Minimax algorithm is run to find and score all the possible plays
-    //afterwards, get the best move according to the X or O player, play the move, and set its button text
-    //check if the game is over after every move
+    //the AI move is found in the background, firstly it is looked up in the opening book, which holds the solved positions
+    //of the game, if the position is not in the book, the Alpha-Beta pruning Minimax algorithm is run deeper and deeper
+    //within the time limit to find and score all the possible plays, and the best move according to the X or O player is taken
+    //below the unbeatable difficulty the search is shallower, and the move is sometimes not the best one
+    //the taps on the board are ignored until the move is played
     private void playAI() {
-        board.runAlphaBetaMinimax(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, AIValue);
-        Point point = board.getBestMove(AIValue);
-        board.playMove(point, AIValue);
-
-        //loop through all parent view's children to find the right button and set its text value
-        for (int i = 0; i < layoutGame.getChildCount(); i++) {
-            LinearLayout view = (LinearLayout) layoutGame.getChildAt(i);
-            for (int j = 0; j < view.getChildCount(); j++) {
-                Button button = (Button) view.getChildAt(j);
-                Point buttonPoint = (Point) button.getTag();
+        aiService.findMove(board, AIValue, AI_TIME_LIMIT, difficulty, new AIService.Callback() {
+            @Override
+            public void onMoveFound(Point point) {
+                playAIMove(point);
+            }
 
-                if (point.equals(buttonPoint)) {
-                    button.setText(AIValue.name());
-                    setButtonTextColor(button);
-                    break;
-                }
+            @Override
+            public void onMoveNotFound() {
+                showAIFailedDialog();
             }
-        }
+        });
+    }
 
-        checkIfGameOver();
+    //display the dialog of a failed AI move with the choice of going back to home, or letting the AI try again,
+    //since it is still the turn of the AI
+    private void showAIFailedDialog() {
+        AlertDialog.Builder builder = new AlertDialog.Builder(getActivity());
+        builder.setMessage(R.string.ai_failed)
+                .setCancelable(false)
+                .setNegativeButton(R.string.back, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        getActivity().onBackPressed();
+                    }
+                })
+                .setPositiveButton(R.string.try_again, new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        playAI();
+                    }
+                });
+        builder.create().show();
+    }
+
+    //play the AI move, and set its button text, check if the game is over after every move
+    //while the human is thinking, the AI searches its answers to the likely replies, so it answers the reply at once
+    private void playAIMove(Point point) {
+        board.pushMove(point, AIValue);
+        updateButtons();
+
+        if (!checkIfGameOver()) {
+            aiService.ponder(board, AIValue, AI_TIME_LIMIT, difficulty);
+        }
     }
 
     //display the Game Over dialog with the choice of going back to home to choose the game type, or start a new game immediately
@@ -139,77 +347,74 @@ public class GameFragment extends Fragment implements View.OnClickListener {
     //for new game, reset the board, set lastPlayerValue to be O so that X will be the first to play
     //clear all button texts and check if AI player should play first
     private void newGame() {
+        aiService.cancel();
         board.resetBoard();
         lastPlayerValue = Board.Value.O;
-        setButtons();
+        updateButtons();
         setAIPlayer();
     }
 
     //check if game over, and display the appropriate dialog
-    private void checkIfGameOver() {
+    private boolean checkIfGameOver() {
         if (board.isXWinner()) {
             showGameOverDialog(R.string.x_won);
         } else if (board.isOWinner()) {
             showGameOverDialog(R.string.o_won);
         } else if (board.isGameDrawn()) {
             showGameOverDialog(R.string.draw);
+        } else {
+            return false;
         }
+
+        return true;
     }
 
     //this is the button click listener
     @Override
     public void onClick(View view) {
-        Button button = (Button) view;
-
-        //a click is valid only if the button text is empty, meaning the button has not been clicked so far or played by the AI
-        if (button.getText().length() == 0) {
-            //get the Point from the button tag
-            Point point = (Point) button.getTag();
+        //get the cell from the button tag
+        int cell = (Integer) view.getTag();
 
+        //a click is valid only if the cell is empty, meaning the button has not been clicked so far or played by the AI
+        //and if the AI is not looking for its move at the moment
+        if (shownValues[cell] == Board.Value.EMPTY && !aiService.isThinking()) {
             //check if AI mode is on
             if (AIValue != null) {
                 //play the user's move according to the AI's sign
                 if (AIValue == Board.Value.X) {
-                    board.playMove(point, Board.Value.O);
-                    button.setText(Board.Value.O.name());
+                    board.pushMove(cell, Board.Value.O);
                 }
                 else if (AIValue == Board.Value.O) {
-                    board.playMove(point, Board.Value.X);
-                    button.setText(Board.Value.X.name());
+                    board.pushMove(cell, Board.Value.X);
                 }
+                updateButtons();
 
-                //after the move is played, play the AI move
-                playAI();
+                //after the move is played, play the AI move if the game is not over yet
+                if (!checkIfGameOver()) {
+                    playAI();
+                }
             }
             //if AI mode is off, it means it is a Human vs Human game
             else {
                 //check the last player's sign, and play the opposite one
                 if (lastPlayerValue == Board.Value.X) {
-                    board.playMove(point, Board.Value.O);
-                    button.setText(Board.Value.O.name());
+                    board.pushMove(cell, Board.Value.O);
                     lastPlayerValue = Board.Value.O;
                 }
                 else if (lastPlayerValue == Board.Value.O) {
-                    board.playMove(point, Board.Value.X);
-                    button.setText(Board.Value.X.name());
+                    board.pushMove(cell, Board.Value.X);
                     lastPlayerValue = Board.Value.X;
                 }
+                updateButtons();
 
                 //after the play, check if the game is over
                 checkIfGameOver();
             }
-
-            setButtonTextColor(button);
         }
     }
 
-    //set button text color to differentiate the X's and O's
-    private void setButtonTextColor(Button button) {
-        if (button.getText().equals("X")) {
-            button.setTextColor(Color.BLACK);
-        }
-        else if (button.getText().equals("O")) {
-            button.setTextColor(Color.RED);
-        }
+    //get the text color of the given value to differentiate the X's and O's
+    private static int getValueColor(Board.Value value) {
+        return value == Board.Value.O ? Color.RED : Color.BLACK;
     }
 }
@@ -1,15 +1,21 @@
 package com.conichi.tictactoe.fragment;
 
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v4.app.Fragment;
 import android.view.LayoutInflater;
+import android.view.Menu;
+import android.view.MenuInflater;
+import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 
 import com.conichi.tictactoe.R;
 import com.conichi.tictactoe.activity.HomeActivity;
+import com.conichi.tictactoe.engine.Difficulty;
 import com.conichi.tictactoe.entity.Board;
 
 import butterknife.ButterKnife;
@@ -17,6 +23,16 @@ import butterknife.OnClick;
 
 public class HomeFragment extends Fragment {
 
+    //the difficulty of the AI is kept in the preferences, so it stays the same between launches
+    private static final String PREFERENCES = "settings";
+    private static final String DIFFICULTY = "difficulty";
+
+    @Override
+    public void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setHasOptionsMenu(true);
+    }
+
     @Nullable
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -38,6 +54,72 @@ public class HomeFragment extends Fragment {
         ButterKnife.unbind(this);
     }
 
+    @Override
+    public void onCreateOptionsMenu(Menu menu, MenuInflater inflater) {
+        inflater.inflate(R.menu.menu_home, menu);
+    }
+
+    //the difficulty can only be changed on the home screen, the game fragments are added on top of it
+    @Override
+    public void onPrepareOptionsMenu(Menu menu) {
+        boolean onTop = getFragmentManager().findFragmentById(R.id.fragmentContainerHome) == this;
+        menu.findItem(R.id.action_difficulty).setVisible(onTop);
+        menu.findItem(getMenuItemId(getDifficulty())).setChecked(true);
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+            case R.id.difficulty_easy:
+                setDifficulty(Difficulty.EASY);
+                return true;
+            case R.id.difficulty_medium:
+                setDifficulty(Difficulty.MEDIUM);
+                return true;
+            case R.id.difficulty_hard:
+                setDifficulty(Difficulty.HARD);
+                return true;
+            case R.id.difficulty_unbeatable:
+                setDifficulty(Difficulty.UNBEATABLE);
+                return true;
+            default:
+                return super.onOptionsItemSelected(item);
+        }
+    }
+
+    private static int getMenuItemId(Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return R.id.difficulty_easy;
+            case MEDIUM:
+                return R.id.difficulty_medium;
+            case HARD:
+                return R.id.difficulty_hard;
+            default:
+                return R.id.difficulty_unbeatable;
+        }
+    }
+
+    //get the chosen difficulty, the AI is unbeatable until another one is chosen
+    private Difficulty getDifficulty() {
+        String difficulty = getPreferences().getString(DIFFICULTY, Difficulty.UNBEATABLE.name());
+
+        try {
+            return Difficulty.valueOf(difficulty);
+        } catch (IllegalArgumentException e) {
+            return Difficulty.UNBEATABLE;
+        }
+    }
+
+    private void setDifficulty(Difficulty difficulty) {
+        getPreferences().edit().putString(DIFFICULTY, difficulty.name()).apply();
+        getActivity().supportInvalidateOptionsMenu();
+    }
+
+    private SharedPreferences getPreferences() {
+        return getActivity().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
     //this is the click listener for all 3 buttons
     @OnClick({R.id.btnHumanVsHuman, R.id.btnHumanVsAi, R.id.btnAiVsHuman})
     void clickNewGame(View v) {
@@ -54,12 +136,14 @@ public class HomeFragment extends Fragment {
                 bundle.putString(GameFragment.AI_SIGN, Board.Value.X.name());
                 break;
         }
+        bundle.putString(GameFragment.DIFFICULTY, getDifficulty().name());
 
+        //the game sets the text of the button as its title
+        bundle.putString(GameFragment.TITLE, ((Button) v).getText().toString());
         gameFragment.setArguments(bundle);
 
         //load the GameFragment
         ((HomeActivity) getActivity()).setCurrentFragment(gameFragment);
-        getActivity().setTitle(((Button) v).getText());
     }
 
 }
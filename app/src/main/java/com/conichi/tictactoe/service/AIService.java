@@ -0,0 +1,217 @@
+package com.conichi.tictactoe.service;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.conichi.tictactoe.engine.CancellationToken;
+import com.conichi.tictactoe.engine.Difficulty;
+import com.conichi.tictactoe.engine.Engine;
+import com.conichi.tictactoe.engine.EvaluationCache;
+import com.conichi.tictactoe.engine.MonteCarloSearcher;
+import com.conichi.tictactoe.engine.OpeningBook;
+import com.conichi.tictactoe.engine.Ponderer;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.SearchResult;
+import com.conichi.tictactoe.engine.Searcher;
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AIService {
+
+    //called on the main thread with the move the AI has chosen, or when the search failed without being cancelled,
+    //the AI is not thinking anymore in either case
+    public interface Callback {
+        void onMoveFound(Point point);
+
+        void onMoveNotFound();
+    }
+
+    //the engines the AI can play with, the alpha-beta search is the default, since the Monte Carlo tree search lost to it
+    //on the big boards with the same time
+    public enum EngineType {
+        ALPHA_BETA, MONTE_CARLO
+    }
+
+    //all the searches run one after another on a single background thread, so they never block the main thread
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    //the file of the opening book, which is loaded on the background thread before the first search,
+    //the engine which looks the position up in the book and searches it if it is not there, and the Monte Carlo engine,
+    //they are both created on the background thread when they are first needed, and only used there,
+    //the type of the engine the next searches use is set on the main thread
+    private final File openingBookFile;
+    private Engine searcher;
+    private Engine monteCarloSearcher;
+    private volatile EngineType engineType = EngineType.ALPHA_BETA;
+
+    //the best moves of both engines by position, kept in a file across launches, it is only read on the background thread
+    //on the first search, the engines cache their moves apart, so they can share it
+    private final EvaluationCache evaluationCache;
+
+    //the time, speed and size of every search of the service, so slow moves can be noticed and explained
+    private final SearchMetrics metrics = new SearchMetrics();
+
+    //the token of the search in progress, it is only used on the main thread
+    private CancellationToken cancellationToken;
+
+    //the answers to the likely replies of the human, which are searched after the AI move while the human is thinking,
+    //it is only used on the main thread, see ponder()
+    private Ponderer ponderer;
+
+    public AIService(File openingBookFile, File evaluationCacheFile) {
+        this.openingBookFile = openingBookFile;
+        evaluationCache = new EvaluationCache(evaluationCacheFile);
+    }
+
+    //find the move of the given player at the given difficulty on a copy of the board in the background,
+    //the unbeatable AI looks in the opening book first, and if the position is not in the book, the search is limited
+    //to the given time in milliseconds, and to the depth and node limits of the difficulty
+    //the search in progress is cancelled, and the callback is only called if this search does not get cancelled too,
+    //a search which throws or finds no move is reported to the callback as well, so the AI never stays thinking
+    //if the answer to the position was pondered, it is played without a search, and if it is being pondered,
+    //the search goes on to the end, the answers to the other replies are not searched anymore
+    public void findMove(Board board, final Board.Value player, final long timeLimit, final Difficulty difficulty,
+                         final Callback callback) {
+        final Ponderer pondered = ponderer;
+        if (pondered != null) {
+            pondered.stop(board);
+            ponderer = null;
+        }
+        cancel();
+
+        final Board position = new Board(board);
+        final CancellationToken token = new CancellationToken();
+        cancellationToken = token;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (token.isCancelled()) {
+                    return;
+                }
+
+                SearchResult result = null;
+                try {
+                    result = pondered != null ? pondered.getAnswer(position) : null;
+                    if (result == null) {
+                        result = getEngine().bestMove(position, player, new SearchLimits.Builder()
+                                .timeLimit(timeLimit)
+                                .difficulty(difficulty)
+                                .cancellationToken(token)
+                                .build());
+                    }
+                } catch (RuntimeException e) {
+                    //the move is reported as not found below, the background thread goes on with the next search
+                }
+
+                //a cancelled search has already given up the token to the search or the cancel() which cancelled it
+                final Point bestMove = result != null ? result.getMove() : null;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!token.isCancelled()) {
+                            cancellationToken = null;
+                            if (bestMove != null) {
+                                callback.onMoveFound(bestMove);
+                            } else {
+                                callback.onMoveNotFound();
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    //search the answers of the given player to the likely replies of the other player in a copy of the board
+    //in the background, with the same limits findMove() searches them with, so the AI answers the reply at once
+    //if it was pondered, pondering goes on until the reply is played or findMove() or cancel() is called
+    public void ponder(Board board, Board.Value player, long timeLimit, Difficulty difficulty) {
+        cancel();
+
+        final Ponderer newPonderer = new Ponderer(board, player, new SearchLimits.Builder()
+                .timeLimit(timeLimit)
+                .difficulty(difficulty)
+                .build());
+        ponderer = newPonderer;
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                newPonderer.ponder(getEngine());
+            }
+        });
+    }
+
+    //get the engine of the current engine type, it is only called on the background thread
+    private Engine getEngine() {
+        if (engineType == EngineType.MONTE_CARLO) {
+            if (monteCarloSearcher == null) {
+                monteCarloSearcher = new MonteCarloSearcher.Builder()
+                        .evaluationCache(evaluationCache)
+                        .metrics(metrics)
+                        .build();
+            }
+            return monteCarloSearcher;
+        }
+
+        if (searcher == null) {
+            searcher = new Searcher.Builder()
+                    .openingBook(OpeningBook.load(openingBookFile))
+                    .evaluationCache(evaluationCache)
+                    .metrics(metrics)
+                    .build();
+        }
+        return searcher;
+    }
+
+    public EngineType getEngineType() {
+        return engineType;
+    }
+
+    //set the engine the next searches and pondering use, the search in progress goes on with its engine
+    public void setEngineType(EngineType engineType) {
+        this.engineType = engineType;
+    }
+
+    //get the metrics of all the searches so far, they can be read from any thread
+    public SearchMetrics getMetrics() {
+        return metrics;
+    }
+
+    //check if a search is in progress and its move has not been delivered yet
+    public boolean isThinking() {
+        return cancellationToken != null;
+    }
+
+    //cancel the search in progress, its move will not be delivered, and stop pondering
+    public void cancel() {
+        if (ponderer != null) {
+            ponderer.cancel();
+            ponderer = null;
+        }
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+            cancellationToken = null;
+        }
+    }
+
+    //cancel the search in progress and stop the background thread, the service cannot be used afterwards
+    //the cache is written to its file and closed on the background thread, once the search in progress has stopped
+    public void shutdown() {
+        cancel();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                evaluationCache.close();
+            }
+        });
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,76 @@
+package com.conichi.tictactoe.benchmark;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({Positions.EMPTY, Positions.MIDGAME, Positions.WON, Positions.GOMOKU})
+    public String position;
+
+    private Board board;
+    private int emptyCell;
+
+    @Setup
+    public void setUp() {
+        board = Positions.create(position);
+
+        int[] moves = new int[board.getCellCount()];
+        emptyCell = board.generateMoves(moves) > 0 ? moves[0] : -1;
+    }
+
+    @Benchmark
+    public int currentBoardScore() {
+        return board.getCurrentBoardScore();
+    }
+
+    @Benchmark
+    public boolean xWinner() {
+        return board.isXWinner();
+    }
+
+    @Benchmark
+    public boolean oWinner() {
+        return board.isOWinner();
+    }
+
+    @Benchmark
+    public List<Point> possiblePoints() {
+        return board.getPossiblePoints();
+    }
+
+    //playing a move and taking it back, which updates the line counters, the score and the hashes twice
+    @Benchmark
+    public int playAndUndoMove() {
+        if (emptyCell < 0) {
+            return board.getCurrentBoardScore();
+        }
+
+        board.playMove(emptyCell, Board.Value.X);
+        int score = board.getCurrentBoardScore();
+        board.undoMove(emptyCell);
+
+        return score;
+    }
+}
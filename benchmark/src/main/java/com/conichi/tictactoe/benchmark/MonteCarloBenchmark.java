@@ -0,0 +1,59 @@
+package com.conichi.tictactoe.benchmark;
+
+import com.conichi.tictactoe.engine.MonteCarloSearcher;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchResult;
+import com.conichi.tictactoe.entity.Board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MonteCarloBenchmark {
+
+    //the playouts of every search, the time of a search divided by them is the time of a single playout
+    private static final int PLAYOUTS = 10000;
+
+    @Param({Positions.EMPTY, Positions.MIDGAME, Positions.GOMOKU})
+    public String position;
+
+    private MonteCarloSearcher searcher;
+    private Board board;
+    private Board.Value player;
+
+    @Setup
+    public void setUp() {
+        board = Positions.create(position);
+        player = Positions.getPlayer(board);
+
+        //every search starts from an empty tree, run with -prof gc to see that the playouts allocate nothing,
+        //only the positions added to the tree do
+        searcher = new MonteCarloSearcher.Builder()
+                .playouts(PLAYOUTS)
+                .reuseTrees(false)
+                .random(new Random(1))
+                .build();
+    }
+
+    @Benchmark
+    public SearchResult bestMove() {
+        return searcher.bestMove(board, player, SearchLimits.NONE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.conichi.tictactoe.benchmark;
+
+import com.conichi.tictactoe.entity.Board;
+
+class Positions {
+
+    //the names of the positions, used as the @Param values of the benchmarks
+    static final String EMPTY = "empty";
+    static final String OPENING = "opening";
+    static final String MIDGAME = "midgame";
+    static final String WON = "won";
+    static final String GOMOKU = "gomoku";
+
+    //the 15x15 position is searched only this many moves deep, the 3x3 ones are searched until the end of the game
+    static final int GOMOKU_SEARCH_DEPTH = 3;
+
+    //create the board of the position with the given name, the moves are cell indexes played by X and O in turn
+    static Board create(String name) {
+        switch (name) {
+            case EMPTY:
+                return play(new Board());
+            case OPENING:
+                //X in the center, O in a corner
+                return play(new Board(), 4, 0);
+            case MIDGAME:
+                //X in the center and a corner, O in the opposite corner and blocking the diagonal
+                return play(new Board(), 4, 0, 2, 6);
+            case WON:
+                //X has the first row
+                return play(new Board(), 0, 3, 1, 4, 2);
+            case GOMOKU:
+                //a few moves around the center of a 15x15 board with 5 in a row
+                return play(new Board(15, 5), 112, 113, 97, 127, 98, 96, 126, 82);
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+
+    //get the player on move in the given board
+    static Board.Value getPlayer(Board board) {
+        return board.getMoveCount() % 2 == 0 ? Board.Value.X : Board.Value.O;
+    }
+
+    private static Board play(Board board, int... cells) {
+        for (int i = 0; i < cells.length; i++) {
+            board.playMove(cells[i], i % 2 == 0 ? Board.Value.X : Board.Value.O);
+        }
+
+        return board;
+    }
+}
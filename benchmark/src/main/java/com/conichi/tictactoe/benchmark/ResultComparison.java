@@ -0,0 +1,119 @@
+package com.conichi.tictactoe.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ResultComparison {
+
+    //allocation differences below this many bytes per operation are noise of the gc profiler
+    private static final double ALLOCATION_SLACK = 8;
+
+    //compare the results of a benchmark run with the results of a baseline run, both in the csv format of jmh
+    //the time per operation and the bytes allocated per operation of every benchmark are compared,
+    //and the process exits with 1 if any of them got worse by more than the tolerance, even after taking the errors into account
+    //usage: ResultComparison <baseline csv> <results csv> [tolerance in percent, 10 by default]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ResultComparison <baseline csv> <results csv> [tolerance percent]");
+            System.exit(2);
+        }
+
+        Map<String, double[]> baseline = read(args[0]);
+        Map<String, double[]> results = read(args[1]);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.1;
+        int regressions = 0;
+
+        for (Map.Entry<String, double[]> entry : results.entrySet()) {
+            double[] base = baseline.get(entry.getKey());
+            double[] result = entry.getValue();
+
+            if (base == null) {
+                System.out.println("NEW        " + entry.getKey() + " " + format(result));
+                continue;
+            }
+
+            double slack = entry.getKey().contains("gc.alloc.rate.norm") ? ALLOCATION_SLACK : 0;
+            boolean regressed = result[0] - result[1] > (base[0] + base[1]) * (1 + tolerance) + slack;
+            double change = base[0] == 0 ? 0 : (result[0] - base[0]) / base[0] * 100;
+
+            if (regressed) {
+                regressions++;
+            }
+
+            System.out.println((regressed ? "REGRESSION " : "ok         ") + entry.getKey() + " " + format(base)
+                    + " -> " + format(result) + String.format(" (%+.1f%%)", change));
+        }
+
+        System.out.println(regressions + " regressions with " + Math.round(tolerance * 100) + "% tolerance");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static String format(double[] score) {
+        return String.format("%.3f +- %.3f", score[0], score[1]);
+    }
+
+    //read the score and the error of every benchmark measured per operation, keyed by the benchmark with its parameters
+    //the rates and counts of the gc profiler are skipped, only its bytes per operation are kept
+    private static Map<String, double[]> read(String file) throws IOException {
+        Map<String, double[]> scores = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+
+        try {
+            List<String> header = parse(reader.readLine());
+            int scoreColumn = header.indexOf("Score");
+            int errorColumn = scoreColumn + 1;
+            int unitColumn = header.indexOf("Unit");
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fields = parse(line);
+
+                if (!fields.get(unitColumn).endsWith("/op")) {
+                    continue;
+                }
+
+                StringBuilder key = new StringBuilder(fields.get(0));
+                for (int i = unitColumn + 1; i < fields.size(); i++) {
+                    key.append(' ').append(header.get(i).replace("Param: ", "")).append('=').append(fields.get(i));
+                }
+
+                String error = fields.get(errorColumn);
+                scores.put(key.toString(), new double[]{Double.parseDouble(fields.get(scoreColumn)),
+                        error.isEmpty() || error.equals("NaN") ? 0 : Double.parseDouble(error)});
+            }
+        } finally {
+            reader.close();
+        }
+
+        return scores;
+    }
+
+    //split a csv line into its fields, the fields may be quoted
+    private static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+
+        return fields;
+    }
+}
@@ -0,0 +1,110 @@
+package com.conichi.tictactoe.benchmark;
+
+import com.conichi.tictactoe.engine.HeuristicMoveOrdering;
+import com.conichi.tictactoe.engine.Search;
+import com.conichi.tictactoe.engine.TableMoveOrdering;
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({Positions.EMPTY, Positions.OPENING, Positions.MIDGAME, Positions.GOMOKU})
+    public String position;
+
+    //the move ordering, the node counts of the orderings are reported by the NodeCounters
+    @Param({"table", "heuristic"})
+    public String ordering;
+
+    private Search search;
+    private Board.Value player;
+
+    @Setup
+    public void setUp() {
+        Board board = Positions.create(position);
+        player = Positions.getPlayer(board);
+
+        search = new Search(board);
+        search.setMoveOrdering(ordering.equals("heuristic") ? new HeuristicMoveOrdering() : TableMoveOrdering.INSTANCE);
+        if (position.equals(Positions.GOMOKU)) {
+            search.setMaxDepth(Positions.GOMOKU_SEARCH_DEPTH);
+        }
+
+        //score the points once, so getBestMove() has something to pick from
+        search.runAlphaBetaMinimax(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, player);
+    }
+
+    //the whole search of the position, the transposition table is cleared first so every search starts from scratch
+    @Benchmark
+    public int alphaBetaMinimax(NodeCounters counters) {
+        search.getTranspositionTable().clear();
+        search.getMoveOrdering().clear();
+        int score = search.runAlphaBetaMinimax(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, player);
+
+        counters.nodes += search.getSearchedNodes();
+        counters.searches++;
+
+        return score;
+    }
+
+    //the whole search of the position with the negamax principal variation search, from scratch like alphaBetaMinimax()
+    @Benchmark
+    public int negamax(NodeCounters counters) {
+        search.getTranspositionTable().clear();
+        search.getMoveOrdering().clear();
+        int score = search.runNegamax(-Search.INFINITY, Search.INFINITY, 0, player);
+
+        counters.nodes += search.getSearchedNodes();
+        counters.searches++;
+
+        return score;
+    }
+
+    //the search of the position again, with the transposition table full of the positions of the earlier searches
+    @Benchmark
+    public int alphaBetaMinimaxWarmTable() {
+        return search.runAlphaBetaMinimax(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, player);
+    }
+
+    @Benchmark
+    public Point bestMove() {
+        return search.getBestMove(player);
+    }
+
+    //the number of positions visited by the searches and the number of searches of every iteration,
+    //nodes divided by searches is the node count of a single search, which shows how well the move ordering prunes
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class NodeCounters {
+
+        public long nodes;
+        public long searches;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+            searches = 0;
+        }
+    }
+}
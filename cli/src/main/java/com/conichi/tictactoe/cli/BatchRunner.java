@@ -0,0 +1,59 @@
+package com.conichi.tictactoe.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+class BatchRunner {
+
+    //the tasks run on the pool a batch at a time, and their lines are printed in the order the tasks were submitted,
+    //so only a batch of results is ever kept in memory, however many tasks there are
+    private final ExecutorService executor;
+    private final PrintStream out;
+    private final int batchSize;
+    private final List<Future<String>> batch = new ArrayList<>();
+
+    BatchRunner(ExecutorService executor, PrintStream out, int batchSize) {
+        this.executor = executor;
+        this.out = out;
+        this.batchSize = batchSize;
+    }
+
+    void submit(Callable<String> task) throws IOException {
+        batch.add(executor.submit(task));
+
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    //wait for the submitted tasks and print their lines, a task which failed to write its output fails the flush
+    //the batch is emptied either way, and after a failed task the tasks which are still waiting are cancelled,
+    //so a later flush never sees the tasks of a failed batch
+    void flush() throws IOException {
+        try {
+            for (Future<String> result : batch) {
+                out.println(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the results", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("A task failed", e.getCause());
+        } finally {
+            //cancelling a task which is done does nothing, so only the tasks left after a failure get cancelled
+            for (Future<String> result : batch) {
+                result.cancel(true);
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.conichi.tictactoe.cli;
+
+import com.conichi.tictactoe.engine.Difficulty;
+import com.conichi.tictactoe.engine.Engine;
+import com.conichi.tictactoe.engine.EvaluationCache;
+import com.conichi.tictactoe.engine.MonteCarloSearcher;
+import com.conichi.tictactoe.engine.OpeningBook;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.Searcher;
+import com.conichi.tictactoe.engine.TranspositionTable;
+import com.conichi.tictactoe.entity.Board;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+public class Main {
+
+    private static final String USAGE = "Usage: tictactoe <command> [options]\n"
+            + "\n"
+            + "Commands:\n"
+            + "  selfplay   play games engine against engine or against random moves, one line per game:\n"
+            + "             index, X player, O player, winner (x, o or draw), and the played cells\n"
+            + "  analyze    find the best move of every position of a file, one line per position:\n"
+            + "             position as it was searched, best move as x,y, score for X, completed depth, and searched positions\n"
+            + "\n"
+            + "Self-play options:\n"
+            + "  --games N          number of games, 100 by default\n"
+            + "  --size N           size of the board, 3 by default\n"
+            + "  --win N            win length, the size up to 5 by default\n"
+            + "  --opponent NAME    engine or random, engine by default, the engine plays X in the even games\n"
+            + "  --random-moves N   number of random moves every game starts with, 0 by default\n"
+            + "  --seed N           seed of the random moves, 1 by default\n"
+            + "  --record PATH      append the games to the given game record file\n"
+            + "\n"
+            + "Analysis options:\n"
+            + "  --file PATH        file of positions, one per line, - for the standard input, which is the default\n"
+            + "                     a position is its rows separated by '/' with x, o and . for the cells, like x.o/.x./..o,\n"
+            + "                     and may start with the win length and ':', the empty lines and lines starting with # are skipped\n"
+            + "\n"
+            + "Engine options:\n"
+            + "  --engine NAME      alphabeta or mcts, alphabeta by default, which beat mcts on 9x9 and 15x15 with the same time\n"
+            + "  --time MS          time limit of every move\n"
+            + "  --depth N          depth limit of every move\n"
+            + "  --nodes N          node limit of every move, boards bigger than 4x4 need one of the limits with alphabeta,\n"
+            + "                     with mcts the depth limits the tree and a node is a playout\n"
+            + "  --table N          transposition table entries of every thread, 1048576 by default\n"
+            + "  --book             play the 3x3 moves from the opening book\n"
+            + "  --playouts N       playouts of every mcts move, 20000 by default\n"
+            + "  --cache PATH       file the best moves are kept in across runs, a cached move is played without a search\n"
+            + "  --difficulty NAME  easy, medium, hard or unbeatable, unbeatable by default\n"
+            + "  --threads N        number of threads, the number of processors by default\n"
+            + "\n"
+            + "The throughput and the search metrics are printed to the standard error at the end.";
+
+    //the biggest board which can be searched to the end of the game without a limit
+    private static final int MAX_UNLIMITED_CELLS = 16;
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].equals("--help") || args[0].equals("help")) {
+            System.out.println(USAGE);
+            return;
+        }
+
+        try {
+            Options options = new Options(args, 1);
+
+            if (args[0].equals("selfplay")) {
+                new SelfPlay(options).run(System.out);
+            } else if (args[0].equals("analyze")) {
+                new PositionAnalysis(options).run(System.out);
+            } else {
+                throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println();
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static Engine createEngine(Options options, SearchMetrics metrics) {
+        String engine = options.getString("engine", "alphabeta");
+        EvaluationCache evaluationCache = createEvaluationCache(options);
+
+        if (engine.equals("mcts")) {
+            return new MonteCarloSearcher.Builder()
+                    .playouts(options.getInt("playouts", MonteCarloSearcher.DEFAULT_PLAYOUTS))
+                    .evaluationCache(evaluationCache)
+                    .metrics(metrics)
+                    .build();
+        } else if (!engine.equals("alphabeta")) {
+            throw new IllegalArgumentException("Unknown engine: " + engine);
+        }
+
+        return new Searcher.Builder()
+                .openingBook(options.has("book") ? OpeningBook.generate() : null)
+                .transpositionTable(options.getInt("table", 1 << 20), TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED)
+                .evaluationCache(evaluationCache)
+                .metrics(metrics)
+                .build();
+    }
+
+    //the cache is written to its file when the process exits, or null if there is no --cache option
+    private static EvaluationCache createEvaluationCache(Options options) {
+        if (!options.has("cache")) {
+            return null;
+        }
+
+        String path = options.getString("cache", "");
+        if (path.isEmpty()) {
+            throw new IllegalArgumentException("--cache needs a file");
+        }
+
+        final EvaluationCache evaluationCache = new EvaluationCache(new File(path));
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                evaluationCache.close();
+            }
+        });
+
+        return evaluationCache;
+    }
+
+    static SearchLimits createLimits(Options options) {
+        return new SearchLimits.Builder()
+                .timeLimit(options.getLong("time", 0))
+                .maxDepth(options.getInt("depth", 0))
+                .nodeLimit(options.getLong("nodes", 0))
+                .difficulty(getDifficulty(options))
+                .build();
+    }
+
+    private static Difficulty getDifficulty(Options options) {
+        String difficulty = options.getString("difficulty", "unbeatable");
+
+        try {
+            return Difficulty.valueOf(difficulty.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown difficulty: " + difficulty);
+        }
+    }
+
+    static int getThreads(Options options) {
+        int threads = options.getInt("threads", Runtime.getRuntime().availableProcessors());
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads needs at least 1 thread");
+        }
+        return threads;
+    }
+
+    //a search of a big board without a limit would never end, the playouts of the Monte Carlo searcher always limit it
+    static void checkLimits(Engine engine, Board board, SearchLimits limits) {
+        if (!(engine instanceof MonteCarloSearcher) && board.getCellCount() > MAX_UNLIMITED_CELLS && limits.getTimeLimit() == 0 && limits.getMaxDepth() == 0
+                && limits.getNodeLimit() == 0) {
+            throw new IllegalArgumentException("A " + board.getSize() + "x" + board.getSize()
+                    + " board needs a --time, --depth or --nodes limit");
+        }
+    }
+
+    //print the number of items per second, and the metrics of the searches
+    static void printSummary(String items, long count, long startTime, SearchMetrics metrics) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.err.println(String.format("%d %s in %.2f s, %.1f %s per second", count, items, seconds,
+                seconds > 0 ? count / seconds : 0, items));
+        System.err.print(metrics.toText());
+    }
+}
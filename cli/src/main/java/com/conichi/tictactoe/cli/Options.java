@@ -0,0 +1,59 @@
+package com.conichi.tictactoe.cli;
+
+import java.util.HashMap;
+import java.util.Map;
+
+class Options {
+
+    //the values of the --name value options, and the --name flags with no value
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args, int start) {
+        for (int i = start; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(name, args[++i]);
+            } else {
+                values.put(name, "");
+            }
+        }
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    String getString(String name, String defaultValue) {
+        String value = values.get(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            long number = Long.parseLong(value);
+            if (number < 0) {
+                throw new IllegalArgumentException("--" + name + " cannot be negative: " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " needs a number: " + value);
+        }
+    }
+
+    int getInt(String name, int defaultValue) {
+        long value = getLong(name, defaultValue);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("--" + name + " is too big: " + value);
+        }
+        return (int) value;
+    }
+}
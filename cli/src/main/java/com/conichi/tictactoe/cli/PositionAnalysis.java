@@ -0,0 +1,91 @@
+package com.conichi.tictactoe.cli;
+
+import com.conichi.tictactoe.engine.Engine;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.SearchResult;
+import com.conichi.tictactoe.entity.Board;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class PositionAnalysis {
+
+    private final String file;
+    private final int threads;
+
+    //the engine is shared by all threads
+    private final SearchMetrics metrics = new SearchMetrics();
+    private final Engine engine;
+    private final SearchLimits limits;
+
+    PositionAnalysis(Options options) {
+        file = options.getString("file", "-");
+        threads = Main.getThreads(options);
+        engine = Main.createEngine(options, metrics);
+        limits = Main.createLimits(options);
+    }
+
+    //read the positions a line at a time, so a file of any size can be analyzed
+    void run(PrintStream out) throws IOException {
+        InputStream input = file.equals("-") ? System.in : new FileInputStream(file);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BatchRunner runner = new BatchRunner(executor, out, threads * 64);
+        long startTime = System.nanoTime();
+        long positions = 0;
+
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String position = line.trim();
+
+                if (position.isEmpty() || position.startsWith("#")) {
+                    continue;
+                }
+
+                positions++;
+                runner.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return analyze(position);
+                    }
+                });
+            }
+            runner.flush();
+        } finally {
+            executor.shutdown();
+            reader.close();
+        }
+
+        Main.printSummary("positions", positions, startTime, metrics);
+    }
+
+    //return the line of the position, a finished game has no best move, and an invalid position gets the error
+    //a valid position is written again from the parsed board, in lower case and with its win length if it is not
+    //the default one, so the lines show the board which was searched, however the position was typed
+    private String analyze(String position) {
+        try {
+            Board board = PositionFormat.parse(position);
+            String analyzed = PositionFormat.format(board);
+            Main.checkLimits(engine, board, limits);
+
+            SearchResult result = engine.bestMove(board, PositionFormat.getPlayer(board), limits);
+            if (result == null) {
+                return analyzed + "\t-";
+            }
+
+            return analyzed + "\t" + result.getMove().getX() + "," + result.getMove().getY() + "\t" + result.getScore()
+                    + "\t" + result.getDepth() + "\t" + result.getNodes();
+        } catch (IllegalArgumentException e) {
+            return position + "\terror: " + e.getMessage();
+        }
+    }
+}
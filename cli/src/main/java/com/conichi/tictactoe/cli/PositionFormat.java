@@ -0,0 +1,87 @@
+package com.conichi.tictactoe.cli;
+
+import com.conichi.tictactoe.entity.Board;
+
+class PositionFormat {
+
+    //a position is written as its rows separated by '/', with 'x', 'o' and '.' for the cells, like "x.o/.x./..o",
+    //optionally preceded by the win length and ':', like "4:x.../..../..o./....", the win length is otherwise the size
+    //of the board up to 5, the player on move is X if both players have played the same number of moves, O otherwise
+    private static final int DEFAULT_MAX_WIN_LENGTH = 5;
+
+    static Board parse(String line) {
+        String rows = line.trim();
+        int winLength = -1;
+
+        int colon = rows.indexOf(':');
+        if (colon >= 0) {
+            try {
+                winLength = Integer.parseInt(rows.substring(0, colon).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid win length in position: " + line);
+            }
+            rows = rows.substring(colon + 1).trim();
+        }
+
+        String[] cells = rows.split("/");
+        int size = cells.length;
+        if (winLength < 0) {
+            winLength = Math.min(size, DEFAULT_MAX_WIN_LENGTH);
+        }
+
+        Board board = new Board(size, winLength);
+        int xs = 0, os = 0;
+
+        for (int x = 0; x < size; x++) {
+            if (cells[x].length() != size) {
+                throw new IllegalArgumentException("The rows of the position are not " + size + " cells long: " + line);
+            }
+
+            for (int y = 0; y < size; y++) {
+                char cell = Character.toLowerCase(cells[x].charAt(y));
+
+                if (cell == 'x') {
+                    board.playMove(x * size + y, Board.Value.X);
+                    xs++;
+                } else if (cell == 'o') {
+                    board.playMove(x * size + y, Board.Value.O);
+                    os++;
+                } else if (cell != '.') {
+                    throw new IllegalArgumentException("Invalid cell '" + cells[x].charAt(y) + "' in position: " + line);
+                }
+            }
+        }
+
+        if (xs != os && xs != os + 1) {
+            throw new IllegalArgumentException("X has " + xs + " moves and O has " + os + " in position: " + line);
+        }
+
+        return board;
+    }
+
+    static Board.Value getPlayer(Board board) {
+        return board.getMoveCount() % 2 == 0 ? Board.Value.X : Board.Value.O;
+    }
+
+    static String format(Board board) {
+        int size = board.getSize();
+        StringBuilder line = new StringBuilder();
+
+        if (board.getWinLength() != Math.min(size, DEFAULT_MAX_WIN_LENGTH)) {
+            line.append(board.getWinLength()).append(':');
+        }
+
+        for (int x = 0; x < size; x++) {
+            if (x > 0) {
+                line.append('/');
+            }
+
+            for (int y = 0; y < size; y++) {
+                Board.Value value = board.getValue(x, y);
+                line.append(value == Board.Value.X ? 'x' : value == Board.Value.O ? 'o' : '.');
+            }
+        }
+
+        return line.toString();
+    }
+}
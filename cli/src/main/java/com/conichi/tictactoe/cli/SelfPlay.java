@@ -0,0 +1,151 @@
+package com.conichi.tictactoe.cli;
+
+import com.conichi.tictactoe.engine.Engine;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.SearchResult;
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.record.GameRecordWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+class SelfPlay {
+
+    private final int games;
+    private final int size;
+    private final int winLength;
+    private final boolean randomOpponent;
+    private final int randomMoves;
+    private final long seed;
+    private final int threads;
+    private final String recordFile;
+
+    //the engine is shared by all threads
+    private final SearchMetrics metrics = new SearchMetrics();
+    private final Engine engine;
+    private final SearchLimits limits;
+
+    //the number of games won by X, won by O, and won by the engine against the random opponent, counted from all threads
+    private final AtomicLong xWins = new AtomicLong();
+    private final AtomicLong oWins = new AtomicLong();
+    private final AtomicLong engineWins = new AtomicLong();
+    private final AtomicLong engineLosses = new AtomicLong();
+
+    //the games are appended to the record file in the order they end, if there is one
+    private GameRecordWriter records;
+
+    SelfPlay(Options options) {
+        games = options.getInt("games", 100);
+        size = options.getInt("size", Board.DEFAULT_SIZE);
+        winLength = options.getInt("win", Math.min(size, 5));
+        randomMoves = options.getInt("random-moves", 0);
+        seed = options.getLong("seed", 1);
+        threads = Main.getThreads(options);
+        recordFile = options.getString("record", null);
+
+        String opponent = options.getString("opponent", "engine");
+        if (!opponent.equals("engine") && !opponent.equals("random")) {
+            throw new IllegalArgumentException("Unknown opponent: " + opponent);
+        }
+        randomOpponent = opponent.equals("random");
+
+        engine = Main.createEngine(options, metrics);
+        limits = Main.createLimits(options);
+        Main.checkLimits(engine, new Board(size, winLength), limits);
+    }
+
+    void run(PrintStream out) throws IOException {
+        if (recordFile != null) {
+            records = new GameRecordWriter(new File(recordFile));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        BatchRunner runner = new BatchRunner(executor, out, threads * 16);
+        long startTime = System.nanoTime();
+
+        try {
+            for (int game = 0; game < games; game++) {
+                final int index = game;
+
+                runner.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return play(index);
+                    }
+                });
+            }
+            runner.flush();
+        } finally {
+            executor.shutdown();
+            if (records != null) {
+                records.close();
+            }
+        }
+
+        long draws = games - xWins.get() - oWins.get();
+        System.err.println("X won " + xWins.get() + ", O won " + oWins.get() + ", " + draws + " draws");
+        if (randomOpponent) {
+            System.err.println("the engine won " + engineWins.get() + " and lost " + engineLosses.get());
+        }
+        Main.printSummary("engine moves", metrics.getMoves(), startTime, metrics);
+    }
+
+    //play a game and return its line, the engine plays X in the even games against the random opponent
+    private String play(int game) throws IOException {
+        Board board = new Board(size, winLength);
+        Random random = new Random(seed * 1000003 + game);
+        boolean engineIsX = !randomOpponent || game % 2 == 0;
+        int[] moves = new int[board.getCellCount()];
+        int[] played = new int[board.getCellCount()];
+        StringBuilder cells = new StringBuilder();
+
+        for (Board.Value player = Board.Value.X; !board.isGameOver();
+             player = player == Board.Value.X ? Board.Value.O : Board.Value.X) {
+            boolean engineMove = board.getMoveCount() >= randomMoves
+                    && (!randomOpponent || engineIsX == (player == Board.Value.X));
+            int cell;
+
+            if (engineMove) {
+                SearchResult result = engine.bestMove(board, player, limits);
+                cell = result.getMove().getX() * size + result.getMove().getY();
+            } else {
+                cell = moves[random.nextInt(board.generateMoves(moves))];
+            }
+
+            played[board.getMoveCount()] = cell;
+            board.playMove(cell, player);
+            cells.append(cells.length() > 0 ? " " : "").append(cell);
+        }
+
+        String winner = "draw";
+        if (board.isXWinner()) {
+            xWins.incrementAndGet();
+            winner = "x";
+        } else if (board.isOWinner()) {
+            oWins.incrementAndGet();
+            winner = "o";
+        }
+
+        if (randomOpponent && !winner.equals("draw")) {
+            (winner.equals("x") == engineIsX ? engineWins : engineLosses).incrementAndGet();
+        }
+
+        if (records != null) {
+            synchronized (records) {
+                records.append(board, played, board.getMoveCount());
+            }
+        }
+
+        String xPlayer = engineIsX ? "engine" : "random";
+        String oPlayer = !randomOpponent || !engineIsX ? "engine" : "random";
+
+        return game + "\t" + xPlayer + "\t" + oPlayer + "\t" + winner + "\t" + cells;
+    }
+}
@@ -0,0 +1,15 @@
+package com.conichi.tictactoe.engine;
+
+public class CancellationToken {
+
+    //set from any thread, and checked periodically by the search running on another one
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,102 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import java.util.List;
+import java.util.Random;
+
+public enum Difficulty {
+
+    //sees only its own wins, and plays a random move every fourth move
+    EASY(1, 1000, 0.25, 20),
+    //sees the wins of the opponent too, and plays a random move every tenth move
+    MEDIUM(2, 10000, 0.1, 5),
+    //looks four moves ahead, and rarely plays a move which is not the best
+    HARD(4, 100000, 0.02, 1),
+    //searches as deep as its time allows and always plays the best move, from the opening book if the position is in it
+    UNBEATABLE(0, 0, 0, 0);
+
+    //the search limits of the level, 0 means there is no limit, the lower the limits, the less the search costs
+    private final int maxDepth;
+    private final long nodeLimit;
+
+    //the chance of playing a random point, and the temperature of the softmax over the scores of the points,
+    //the higher the temperature, the more often a worse point gets chosen, 0 always chooses the best point
+    private final double epsilon;
+    private final double temperature;
+
+    Difficulty(int maxDepth, long nodeLimit, double epsilon, double temperature) {
+        this.maxDepth = maxDepth;
+        this.nodeLimit = nodeLimit;
+        this.epsilon = epsilon;
+        this.temperature = temperature;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    //check if the level does not always choose the best point, then all the points of the root need their exact scores
+    public boolean isRandomized() {
+        return epsilon > 0 || temperature > 0;
+    }
+
+    //the opening book only holds the best moves of the solved positions, so only a level without limits uses it
+    public boolean usesOpeningBook() {
+        return maxDepth == 0 && nodeLimit == 0 && !isRandomized();
+    }
+
+    //choose a point of the given player from the scored points, which are scored from the point of view of X
+    //with the chance of epsilon a random point is chosen, otherwise a point is chosen with the softmax of the scores,
+    //where every point is exp((score - best score) / temperature) times as likely as the best one,
+    //so a forced win is always taken and a forced loss always avoided, unless a random point is chosen
+    public Point selectMove(List<Point> points, Board.Value player, Random random) {
+        if (random.nextDouble() < epsilon) {
+            return points.get(random.nextInt(points.size()));
+        }
+
+        int sign = player == Board.Value.X ? 1 : -1;
+        Point best = points.get(0);
+        for (Point point : points) {
+            if (sign * point.getScore() > sign * best.getScore()) {
+                best = point;
+            }
+        }
+
+        if (temperature == 0) {
+            return best;
+        }
+
+        double total = 0;
+        for (Point point : points) {
+            total += getWeight(point, best, sign);
+        }
+
+        double choice = random.nextDouble() * total;
+        for (Point point : points) {
+            choice -= getWeight(point, best, sign);
+            if (choice < 0) {
+                return point;
+            }
+        }
+
+        return best;
+    }
+
+    private double getWeight(Point point, Point best, int sign) {
+        return Math.exp(((double) sign * point.getScore() - (double) sign * best.getScore()) / temperature);
+    }
+}
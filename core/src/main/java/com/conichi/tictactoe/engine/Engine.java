@@ -0,0 +1,11 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+
+public interface Engine {
+
+    //find the best move of the given player in the given position within the given limits
+    //the position is not changed, and an engine can be called from many threads at the same time
+    //returns null if the game is over or the search got cancelled
+    SearchResult bestMove(Board position, Board.Value player, SearchLimits limits);
+}
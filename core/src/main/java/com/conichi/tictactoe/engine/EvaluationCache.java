@@ -0,0 +1,313 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+public class EvaluationCache {
+
+    //the header of the cache file, the magic, the version, the size of a record and the number of them,
+    //followed by the records, a file with another header is cleared, so the version changes with the record layout
+    private static final int MAGIC = 0x54544543;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+
+    //a record is the key of the position, the score of the best move from the point of view of X, the best move
+    //in the canonical symmetry of the position with the used and referenced flags in its top bits, the search depth,
+    //the time limit in milliseconds, the depth limit, whether the move was searched to the end of the game,
+    //and the node limit of the search, the limits are 0 if there was none
+    private static final int RECORD_SIZE = 32;
+    private static final int KEY = 0;
+    private static final int SCORE = 8;
+    private static final int MOVE = 12;
+    private static final int DEPTH = 14;
+    private static final int TIME_LIMIT = 16;
+    private static final int MAX_DEPTH = 20;
+    private static final int SOLVED = 22;
+    private static final int NODE_LIMIT = 24;
+
+    //the cells take 14 bits, since the biggest board has 128 * 128 cells
+    private static final int MOVE_MASK = 0x3fff;
+    private static final int USED = 0x4000;
+    private static final int REFERENCED = 0x8000;
+
+    //the records of a position are looked for in a bucket of this many records, picked by the low bits of the key
+    private static final int BUCKET_SIZE = 4;
+
+    //the default number of records, which takes a megabyte of disk
+    public static final int DEFAULT_CAPACITY = 1 << 15;
+
+    //the stored records are written to the disk this many milliseconds after the first of them,
+    //so the records of a game go to the disk at once instead of after every move
+    private static final long FLUSH_DELAY = 1000;
+
+    private final File file;
+    private final int capacity;
+    private final int bucketMask;
+
+    //the mapped records, which are only mapped on the first use, see load(), and the position of the clock hand
+    //of every bucket, which is not saved, since a new launch may as well start from the first record
+    private RandomAccessFile randomAccessFile;
+    private MappedByteBuffer records;
+    private boolean loaded;
+    private byte[] hands;
+
+    //writes the mapped records to the disk in the background, once after a store, until the cache is closed
+    private final ScheduledExecutorService flusher;
+    private boolean flushScheduled;
+
+    private long hits, misses;
+
+    public EvaluationCache(File file) {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    //the capacity is rounded up to the next power of two, and to a bucket at least
+    //the file is not touched before the first lookup or store, so creating a cache costs nothing on the main thread
+    public EvaluationCache(File file, int capacity) {
+        if (capacity < 1 || capacity > 1 << 26) {
+            throw new IllegalArgumentException("Invalid evaluation cache capacity: " + capacity);
+        }
+
+        int size = Math.max(Integer.highestOneBit(capacity), BUCKET_SIZE);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.file = file;
+        this.capacity = size;
+        bucketMask = size / BUCKET_SIZE - 1;
+        flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "evaluation-cache-flusher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    //get the best move of the given player with its score and the depth it was searched to, which the engine of the given
+    //configuration cached for a search with the given limits, see getEngineKey() of the engines,
+    //or null if the position is not cached, or the cached move is not as good as the search would find
+    //a move searched to the end of the game is as good as any search, and any other move only stands in for a search
+    //whose limits are all at most the limits of the search of the move, since a search with more time, nodes or depth
+    //could find a better move
+    public synchronized SearchResult get(Board board, Board.Value player, long engineKey, SearchLimits limits) {
+        if (!load()) {
+            return null;
+        }
+
+        int symmetry = board.getCanonicalSymmetry();
+        int record = find(getKey(board, symmetry, player, engineKey));
+
+        if (record < 0 || (records.getShort(record + SOLVED) == 0
+                && (!isWithin(limits.getMaxDepth(), records.getShort(record + MAX_DEPTH) & 0xffff)
+                || !isWithin(limits.getTimeLimit(), records.getInt(record + TIME_LIMIT) & 0xffffffffL)
+                || !isWithin(limits.getNodeLimit(), records.getLong(record + NODE_LIMIT))))) {
+            misses++;
+            return null;
+        }
+
+        int move = records.getShort(record + MOVE) & 0xffff;
+        records.putShort(record + MOVE, (short) (move | REFERENCED));
+
+        int cell = board.getOriginalCell(symmetry, move & MOVE_MASK);
+        int score = records.getInt(record + SCORE);
+        hits++;
+
+        return new SearchResult(new Point(cell / board.getSize(), cell % board.getSize(), score), score,
+                records.getShort(record + DEPTH) & 0xffff, 0, 0, false, null);
+    }
+
+    //store the best move of the given player with its score from the point of view of X, which the engine of the given
+    //configuration found with the given limits, searched to the given depth, and whether it was searched to the end of the game,
+    //which a win or a loss which cannot be avoided counts as too, the last search of a position replaces its record,
+    //unless the record was searched to the end and the new one was not
+    //a full bucket makes room with the clock, which goes over the records of the bucket and evicts the first one
+    //which was not looked up since the hand last passed it, a new record is not referenced, so it goes before
+    //the records which were looked up, unless it gets looked up too
+    public synchronized void put(Board board, Board.Value player, long engineKey, SearchLimits limits, Point move, int score,
+                                 int depth, boolean solved) {
+        if (!load()) {
+            return;
+        }
+
+        int symmetry = board.getCanonicalSymmetry();
+        long key = getKey(board, symmetry, player, engineKey);
+        int record = find(key);
+        int referenced = 0;
+
+        if (record >= 0) {
+            if (records.getShort(record + SOLVED) != 0 && !solved) {
+                return;
+            }
+            referenced = records.getShort(record + MOVE) & REFERENCED;
+        } else {
+            record = evict((int) key & bucketMask);
+        }
+
+        int cell = board.getSymmetricCell(symmetry, move.getX() * board.getSize() + move.getY());
+        records.putLong(record + KEY, key);
+        records.putInt(record + SCORE, score);
+        records.putShort(record + MOVE, (short) (cell | USED | referenced));
+        records.putShort(record + DEPTH, (short) Math.min(depth, 0xffff));
+        records.putInt(record + TIME_LIMIT, (int) Math.min(limits.getTimeLimit(), 0xffffffffL));
+        records.putShort(record + MAX_DEPTH, (short) Math.min(limits.getMaxDepth(), 0xffff));
+        records.putShort(record + SOLVED, (short) (solved ? 1 : 0));
+        records.putLong(record + NODE_LIMIT, limits.getNodeLimit());
+
+        scheduleFlush();
+    }
+
+    //get the offset of the record of the given key, or -1 if it is not cached
+    private int find(long key) {
+        int bucket = (int) key & bucketMask;
+
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int record = getRecord(bucket, i);
+            if ((records.getShort(record + MOVE) & USED) != 0 && records.getLong(record + KEY) == key) {
+                return record;
+            }
+        }
+
+        return -1;
+    }
+
+    //get the offset of an unused record of the bucket, or of the record the clock evicts
+    private int evict(int bucket) {
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            int record = getRecord(bucket, i);
+            if ((records.getShort(record + MOVE) & USED) == 0) {
+                return record;
+            }
+        }
+
+        //the hand clears the referenced flags it passes, so it finds an evictable record within two rounds
+        while (true) {
+            int record = getRecord(bucket, hands[bucket]);
+            hands[bucket] = (byte) ((hands[bucket] + 1) % BUCKET_SIZE);
+
+            int move = records.getShort(record + MOVE) & 0xffff;
+            if ((move & REFERENCED) == 0) {
+                return record;
+            }
+            records.putShort(record + MOVE, (short) (move & ~REFERENCED));
+        }
+    }
+
+    //check if a limit of a search is at most the limit of the cached search, where 0 means there is no limit
+    private static boolean isWithin(long limit, long cachedLimit) {
+        return cachedLimit == 0 || (limit != 0 && limit <= cachedLimit);
+    }
+
+    private static int getRecord(int bucket, int index) {
+        return HEADER_SIZE + (bucket * BUCKET_SIZE + index) * RECORD_SIZE;
+    }
+
+    //the hash of the canonical position, which is the same for all the symmetric positions, mixed with the board size,
+    //since the positions of all the boards are kept in the same file, and the empty boards all have the hash 0,
+    //and with the key of the engine, so the engines which score the positions differently never get each other's moves
+    private static long getKey(Board board, int symmetry, Board.Value player, long engineKey) {
+        return board.getHash(symmetry, player) ^ (board.getSize() * 31L + board.getWinLength()) * 0x9e3779b97f4a7c15L
+                ^ engineKey * 0xc2b2ae3d27d4eb4fL;
+    }
+
+    //map the file on the first use, a file which does not hold a cache of this version and capacity gets cleared,
+    //and if the file cannot be mapped at all, the cache stays empty, the searches just do not get any faster
+    private boolean load() {
+        if (loaded) {
+            return records != null;
+        }
+        loaded = true;
+
+        long length = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            boolean valid = randomAccessFile.length() == length;
+            randomAccessFile.setLength(length);
+
+            records = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            hands = new byte[bucketMask + 1];
+
+            if (!valid || records.getInt(0) != MAGIC || records.getInt(4) != VERSION
+                    || records.getInt(8) != RECORD_SIZE || records.getInt(12) != capacity) {
+                for (int offset = HEADER_SIZE; offset < length; offset += 8) {
+                    records.putLong(offset, 0);
+                }
+                records.putInt(0, MAGIC);
+                records.putInt(4, VERSION);
+                records.putInt(8, RECORD_SIZE);
+                records.putInt(12, capacity);
+                scheduleFlush();
+            }
+
+            return true;
+        } catch (IOException e) {
+            records = null;
+            closeFile();
+            return false;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+
+        flusher.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, FLUSH_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    //write the stored records to the disk right away
+    public synchronized void flush() {
+        flushScheduled = false;
+
+        if (records != null) {
+            records.force();
+        }
+    }
+
+    //write the stored records to the disk and close the file, the cache stays empty afterwards
+    public synchronized void close() {
+        flush();
+        flusher.shutdownNow();
+
+        records = null;
+        loaded = true;
+        closeFile();
+    }
+
+    private void closeFile() {
+        if (randomAccessFile != null) {
+            try {
+                randomAccessFile.close();
+            } catch (IOException e) {
+                //the records are already written, or could not be written anyway
+            }
+            randomAccessFile = null;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
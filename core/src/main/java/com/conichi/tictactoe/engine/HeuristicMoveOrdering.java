@@ -0,0 +1,156 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+
+import java.util.Arrays;
+
+public class HeuristicMoveOrdering implements MoveOrdering {
+
+    //the number of killer moves kept for every depth
+    private static final int KILLERS = 2;
+
+    //the history scores are halved once one of them gets this big, so the old cutoffs count less than the new ones
+    private static final int MAX_HISTORY = 1 << 20;
+
+    //the move ordering keys, the table move goes first, then the killer moves, then the rest of the moves
+    //by their history score, with the number of lines through the cell breaking the ties
+    //on 3x3 that tries the center first, then the corners, and the edges last until the history says otherwise
+    private static final long TABLE_MOVE_KEY = 1L << 40;
+    private static final long KILLER_KEY = 1L << 38;
+    private static final int LINE_COUNT_BITS = 8;
+
+    //only this many of the best moves are picked to the front, the rest keep their row by row order,
+    //since a cutoff nearly always comes from one of the first moves, and sorting all moves of a big board costs more than it saves
+    private static final int ORDERED_MOVES = 8;
+
+    //the board the tables are made for, they are made again when a board of another size is searched
+    private int size = -1, winLength = -1;
+
+    //the number of lines through every cell, the killer moves of every depth, the history score of every cell for X and O,
+    //and the buffer the ordering keys of the moves are made in
+    private int[] lineCounts;
+    private int[][] killers;
+    private int[][] history;
+    private long[] keys;
+
+    @Override
+    public void orderMoves(Board board, int[] moves, int moveTotal, int depth, Board.Value player, int tableMove) {
+        if (board.getSize() != size || board.getWinLength() != winLength) {
+            createTables(board);
+        }
+
+        int[] depthKillers = killers[depth];
+        int[] playerHistory = history[player.ordinal()];
+
+        for (int i = 0; i < moveTotal; i++) {
+            int cell = moves[i];
+            long key;
+
+            if (cell == tableMove) {
+                key = TABLE_MOVE_KEY;
+            } else if (cell == depthKillers[0]) {
+                key = KILLER_KEY << 1;
+            } else if (cell == depthKillers[1]) {
+                key = KILLER_KEY;
+            } else {
+                key = ((long) playerHistory[cell] << LINE_COUNT_BITS) | lineCounts[cell];
+            }
+
+            keys[i] = key;
+        }
+
+        //pick the best of the remaining moves to the front one at a time, the moves with the same key keep their order
+        for (int i = 0; i < Math.min(ORDERED_MOVES, moveTotal - 1); i++) {
+            int best = i;
+            for (int j = i + 1; j < moveTotal; j++) {
+                if (keys[j] > keys[best]) {
+                    best = j;
+                }
+            }
+
+            if (best != i) {
+                int cell = moves[best];
+                long key = keys[best];
+                System.arraycopy(moves, i, moves, i + 1, best - i);
+                System.arraycopy(keys, i, keys, i + 1, best - i);
+                moves[i] = cell;
+                keys[i] = key;
+            }
+        }
+    }
+
+    //remember the move as a killer move of the depth, and add to its history score, more if it was searched deeper
+    @Override
+    public void onCutoff(int move, int depth, Board.Value player, int movesLeft) {
+        if (killers == null) {
+            return;
+        }
+
+        int[] depthKillers = killers[depth];
+        if (depthKillers[0] != move) {
+            depthKillers[1] = depthKillers[0];
+            depthKillers[0] = move;
+        }
+
+        int[] playerHistory = history[player.ordinal()];
+        playerHistory[move] += Math.min(movesLeft * movesLeft, MAX_HISTORY);
+
+        if (playerHistory[move] >= MAX_HISTORY) {
+            for (int[] scores : history) {
+                for (int cell = 0; cell < scores.length; cell++) {
+                    scores[cell] >>= 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (killers == null) {
+            return;
+        }
+
+        for (int[] depthKillers : killers) {
+            Arrays.fill(depthKillers, -1);
+        }
+        for (int[] scores : history) {
+            Arrays.fill(scores, 0);
+        }
+    }
+
+    @Override
+    public MoveOrdering copy() {
+        HeuristicMoveOrdering copy = new HeuristicMoveOrdering();
+
+        if (killers != null) {
+            copy.size = size;
+            copy.winLength = winLength;
+            copy.lineCounts = lineCounts;
+            copy.killers = new int[killers.length][];
+            for (int depth = 0; depth < killers.length; depth++) {
+                copy.killers[depth] = killers[depth].clone();
+            }
+            copy.history = new int[][]{history[0].clone(), history[1].clone()};
+            copy.keys = new long[keys.length];
+        }
+
+        return copy;
+    }
+
+    private void createTables(Board board) {
+        int cellCount = board.getCellCount();
+
+        size = board.getSize();
+        winLength = board.getWinLength();
+
+        lineCounts = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            lineCounts[cell] = board.getLineCount(cell);
+        }
+
+        killers = new int[cellCount + 1][KILLERS];
+        history = new int[2][cellCount];
+        keys = new long[cellCount];
+        clear();
+    }
+}
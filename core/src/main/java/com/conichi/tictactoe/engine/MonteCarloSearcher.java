@@ -0,0 +1,625 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class MonteCarloSearcher implements Engine {
+
+    //the number of playouts of a move, unless the limits allow fewer
+    public static final int DEFAULT_PLAYOUTS = 20000;
+
+    //the exploration constant of UCT, the higher it is, the more the moves which look worse get tried
+    public static final double DEFAULT_EXPLORATION = 1.4;
+
+    //the number of playouts between two checks of the clock and the cancellation token
+    private static final int BUDGET_CHECK_INTERVAL = 64;
+
+    //the score of a move which is not a forced win is its share of the won playouts for X, scaled from -SCORE_SCALE to SCORE_SCALE,
+    //so it never comes close to the scores of the forced wins, see Search.MATE_SCORE
+    private static final int SCORE_SCALE = 1000;
+
+    //the distance in rows and columns from the played cells within which the tree tries moves,
+    //a move far away from all the others hardly ever matters on a big board
+    private static final int CANDIDATE_DISTANCE = 2;
+
+    //the configuration never changes, so a searcher can be shared by any number of threads
+    private final int playouts;
+    private final double exploration;
+    private final ForkJoinPool pool;
+    private final SearchMetrics metrics;
+    private final Random random;
+    private final EvaluationCache evaluationCache;
+
+    //whether the tree of the last move of a thread is kept, so the next move of the same game starts from the subtree
+    //of the position it reached, instead of from scratch
+    private final boolean reuseTrees;
+
+    //the trees of the last search of every calling thread, one for every thread of the pool, since each of them searches
+    //its own tree, and a thread which plays a game keeps getting the trees of its previous moves
+    private final ThreadLocal<Tree[]> threadTrees = new ThreadLocal<>();
+
+    //a searcher with the default playouts and exploration, on the calling thread only
+    public MonteCarloSearcher() {
+        this(new Builder());
+    }
+
+    private MonteCarloSearcher(Builder builder) {
+        playouts = builder.playouts;
+        exploration = builder.exploration;
+        pool = builder.pool;
+        metrics = builder.metrics;
+        random = builder.random;
+        reuseTrees = builder.reuseTrees;
+        evaluationCache = builder.evaluationCache;
+    }
+
+    //the playouts are limited by the node limit of the limits too, and the time limit and the cancellation token stop them early,
+    //the tree is not grown deeper than the depth limit, and a difficulty which does not always play the best move
+    //chooses from the moves of the root with their scores
+    //there is no opening book, the searcher is meant for the boards which the alpha-beta search cannot solve
+    @Override
+    public SearchResult bestMove(Board position, Board.Value player, SearchLimits limits) {
+        long startTime = System.nanoTime();
+
+        if (position.isGameOver()) {
+            return null;
+        }
+
+        //the levels which do not always play the best move are not cached, since their move has to change from game to game
+        Difficulty difficulty = limits.getDifficulty();
+        boolean cached = evaluationCache != null && !difficulty.isRandomized();
+
+        if (cached) {
+            SearchResult result = evaluationCache.get(position, player, getEngineKey(), limits);
+
+            if (result != null) {
+                return record(new SearchResult(result.getMove(), result.getScore(), result.getDepth(), 0,
+                        System.nanoTime() - startTime, false, null));
+            }
+        }
+
+        long budget = limits.getNodeLimit() > 0 ? Math.min(playouts, limits.getNodeLimit()) : playouts;
+        long deadline = limits.getTimeLimit() > 0 ? startTime + limits.getTimeLimit() * 1000000 : Long.MAX_VALUE;
+        int maxDepth = limits.getMaxDepth() > 0 ? limits.getMaxDepth() : Integer.MAX_VALUE;
+        CancellationToken cancellationToken = limits.getCancellationToken();
+
+        Tree[] trees = getTrees(pool != null ? pool.getParallelism() : 1);
+        for (int i = 0; i < trees.length; i++) {
+            //the playouts are split between the trees, the first trees get the rest of the division
+            long treeBudget = budget / trees.length + (i < budget % trees.length ? 1 : 0);
+            trees[i].prepare(position, player, Math.max(treeBudget, 1), deadline, maxDepth, cancellationToken);
+        }
+
+        if (trees.length == 1) {
+            trees[0].search();
+        } else {
+            searchInParallel(trees);
+        }
+
+        if (cancellationToken != null && cancellationToken.isCancelled()) {
+            return null;
+        }
+
+        //the move of the most playouts is the best one, since the playouts keep going to the moves which keep winning
+        List<Point> points = new ArrayList<>();
+        long[] visits = getScoredPoints(trees, position, player, points);
+        int best = 0;
+        for (int i = 1; i < points.size(); i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        Point move = points.get(best);
+
+        if (difficulty.isRandomized()) {
+            move = difficulty.selectMove(points, player, random);
+        }
+
+        long searchedPlayouts = 0;
+        int depth = 0;
+        for (Tree tree : trees) {
+            searchedPlayouts += tree.searchedPlayouts;
+            depth = Math.max(depth, tree.maxReachedDepth);
+        }
+
+        //a forced win or loss is as good as a search to the end of the game
+        if (cached) {
+            evaluationCache.put(position, player, getEngineKey(), limits, move, move.getScore(), depth,
+                    Math.abs(move.getScore()) > Search.MATE_BOUND);
+        }
+
+        return record(new SearchResult(move, move.getScore(), depth, searchedPlayouts, System.nanoTime() - startTime,
+                false, null));
+    }
+
+    //get the key the moves of the searcher are cached with, which is apart from the other engines, and made of the playouts
+    //and the exploration, so a move is only played from the cache by a searcher which would have searched it as well
+    private long getEngineKey() {
+        return (3 * 31L + playouts) * 31L + Double.doubleToLongBits(exploration);
+    }
+
+    private SearchResult record(SearchResult result) {
+        if (metrics != null) {
+            metrics.record(result);
+        }
+
+        return result;
+    }
+
+    //search every tree on a thread of the pool, the trees are only wrapped in fork join tasks here,
+    //so the searcher without a pool never loads the fork join classes
+    private void searchInParallel(Tree[] trees) {
+        final RecursiveAction[] searches = new RecursiveAction[trees.length];
+        for (int i = 0; i < trees.length; i++) {
+            final Tree tree = trees[i];
+            searches[i] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    tree.search();
+                }
+            };
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(searches);
+            }
+        });
+    }
+
+    //get the trees of the calling thread, they are only created again if the number of them changed
+    private Tree[] getTrees(int count) {
+        Tree[] trees = threadTrees.get();
+
+        if (trees == null || trees.length != count) {
+            trees = new Tree[count];
+            for (int i = 0; i < count; i++) {
+                trees[i] = new Tree(this, random.nextLong());
+            }
+            threadTrees.set(trees);
+        }
+
+        return trees;
+    }
+
+    //put every move of the root with its score from the point of view of X into the given list, and get the number of
+    //playouts of every move, the visits and the won playouts of all the trees are added up,
+    //every tree has the same moves at its root, since they are chosen without any randomness
+    private static long[] getScoredPoints(Tree[] trees, Board position, Board.Value player, List<Point> points) {
+        int size = position.getSize();
+        int sign = player == Board.Value.X ? 1 : -1;
+        int[] cells = trees[0].root.cells;
+        long[] visits = new long[cells.length];
+
+        for (int i = 0; i < cells.length; i++) {
+            double wins = 0;
+            boolean win = false;
+
+            for (Tree tree : trees) {
+                Node child = tree.root.getChild(cells[i]);
+                if (child != null) {
+                    visits[i] += child.visits;
+                    wins += child.wins;
+                    win |= child.win;
+                }
+            }
+
+            int score;
+            if (win) {
+                score = sign * (Search.MATE_SCORE - 1);
+            } else if (visits[i] == 0) {
+                score = 0;
+            } else {
+                score = sign * (int) Math.round((2 * wins / visits[i] - 1) * SCORE_SCALE);
+            }
+
+            points.add(new Point(cells[i] / size, cells[i] % size, score));
+        }
+
+        return visits;
+    }
+
+    //a position of the tree, reached by playing its cell in the position of its parent
+    private static class Node {
+
+        //the cell played to reach the position, -1 for the root
+        private final int cell;
+
+        //the moves tried from the position, and the positions they reach, which are created on their first visit,
+        //both are null until the position gets expanded, and the moves are empty if the game is over
+        private int[] cells;
+        private Node[] children;
+        private int childCount;
+
+        //the number of playouts through the position, and the playouts won by the player who played the cell,
+        //where a drawn playout counts as half a win
+        private int visits;
+        private double wins;
+
+        //whether playing the cell wins the game on the spot
+        private boolean win;
+
+        Node(int cell) {
+            this.cell = cell;
+        }
+
+        //get the child reached by the given cell, or null if it was not visited yet
+        Node getChild(int cell) {
+            for (int i = 0; i < childCount; i++) {
+                if (children[i].cell == cell) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+    }
+
+    //a tree searched by a single thread, which keeps the buffers of its playouts, so the playouts allocate nothing
+    private static class Tree {
+
+        private final MonteCarloSearcher searcher;
+
+        //the state of the xorshift generator the random moves are chosen with, it is not shared with any other tree
+        private long seed;
+
+        //the root and its position, the board is played on during the search and is the position of the root after it
+        private Node root;
+        private Board board;
+        private Board.Value rootPlayer;
+
+        //the budget of the current search
+        private long budget;
+        private long deadline;
+        private int maxDepth;
+        private CancellationToken cancellationToken;
+
+        //the playouts of the current search and the deepest position it reached
+        private long searchedPlayouts;
+        private int maxReachedDepth;
+
+        //the positions of the current playout from the root on, the empty cells a playout chooses from,
+        //and the cells the expansion collects the moves into
+        private Node[] path;
+        private int[] moves;
+        private int[] candidates;
+
+        Tree(MonteCarloSearcher searcher, long seed) {
+            this.searcher = searcher;
+            this.seed = seed != 0 ? seed : 1;
+        }
+
+        //set the position and the budget of the next search, the subtree of the position is kept if it is in the tree
+        void prepare(Board position, Board.Value player, long budget, long deadline, int maxDepth,
+                     CancellationToken cancellationToken) {
+            Node reused = searcher.reuseTrees ? findSubtree(position, player) : null;
+
+            if (board == null || board.getCellCount() != position.getCellCount()) {
+                path = new Node[position.getCellCount() + 2];
+                moves = new int[position.getCellCount()];
+                candidates = new int[position.getCellCount()];
+            }
+
+            board = new Board(position);
+            rootPlayer = player;
+            root = reused != null ? reused : new Node(-1);
+            this.budget = budget;
+            this.deadline = deadline;
+            this.maxDepth = maxDepth;
+            this.cancellationToken = cancellationToken;
+            searchedPlayouts = 0;
+            maxReachedDepth = 0;
+        }
+
+        //find the node of the given position, if it is the root or one or two moves after it, or null if it is not in the tree
+        private Node findSubtree(Board position, Board.Value player) {
+            if (root == null || board.getSize() != position.getSize() || board.getWinLength() != position.getWinLength()) {
+                return null;
+            }
+
+            int size = board.getSize();
+            int rootMove = -1, opponentMove = -1;
+            Board.Value opponent = rootPlayer == Board.Value.X ? Board.Value.O : Board.Value.X;
+
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                Board.Value value = position.getValue(cell / size, cell % size);
+                Board.Value rootValue = board.getValue(cell / size, cell % size);
+
+                if (value == rootValue) {
+                    continue;
+                } else if (rootValue != Board.Value.EMPTY) {
+                    return null;
+                } else if (value == rootPlayer && rootMove < 0) {
+                    rootMove = cell;
+                } else if (value == opponent && opponentMove < 0) {
+                    opponentMove = cell;
+                } else {
+                    return null;
+                }
+            }
+
+            if (rootMove < 0 && opponentMove < 0) {
+                return player == rootPlayer ? root : null;
+            } else if (rootMove < 0 || player != (opponentMove < 0 ? opponent : rootPlayer)) {
+                return null;
+            }
+
+            Node node = root.getChild(rootMove);
+            return node != null && opponentMove >= 0 ? node.getChild(opponentMove) : node;
+        }
+
+        //run playouts until the budget is used up, the first one always runs, so the moves of the root are always there
+        void search() {
+            while (searchedPlayouts < budget) {
+                if (searchedPlayouts > 0 && searchedPlayouts % BUDGET_CHECK_INTERVAL == 0 && isOutOfTime()) {
+                    break;
+                }
+
+                runPlayout();
+                searchedPlayouts++;
+            }
+        }
+
+        private boolean isOutOfTime() {
+            return (cancellationToken != null && cancellationToken.isCancelled())
+                    || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0);
+        }
+
+        //select a path down the tree with UCT, add a position to it, play the game out with random moves from there,
+        //and count the result in every position of the path, then take all the moves back
+        private void runPlayout() {
+            Node node = root;
+            Board.Value player = rootPlayer;
+            int depth = 0;
+            path[0] = root;
+
+            while (true) {
+                if (node.cells == null && depth < maxDepth) {
+                    expand(node, player);
+                }
+                if (node.cells == null || node.cells.length == 0) {
+                    break;
+                }
+
+                boolean newChild = node.childCount < node.cells.length;
+                node = newChild ? addChild(node) : selectChild(node);
+                board.playMove(node.cell, player);
+                player = getOpponent(player);
+                path[++depth] = node;
+
+                if (newChild) {
+                    node.win = board.isXWinner() || board.isOWinner();
+                    break;
+                }
+            }
+
+            maxReachedDepth = Math.max(maxReachedDepth, depth);
+
+            int result = playRandomGame(player);
+
+            //every position counts the result for the player who played its cell, which is the player not on move in it
+            for (int i = depth; i >= 0; i--) {
+                Node pathNode = path[i];
+                pathNode.visits++;
+                pathNode.wins += player == Board.Value.X ? (1 - result) * 0.5 : (1 + result) * 0.5;
+                player = getOpponent(player);
+                path[i] = null;
+
+                if (i > 0) {
+                    board.undoMove(pathNode.cell);
+                }
+            }
+        }
+
+        //choose the moves of the position, which are every empty cell near a played cell, or all of them on an empty board,
+        //a move which wins on the spot is the only one, and so is a move which stops the opponent from winning on the spot,
+        //since every other move loses
+        private void expand(Node node, Board.Value player) {
+            if (board.isGameOver()) {
+                node.cells = new int[0];
+                return;
+            }
+
+            //the line counters of the board keep the winning cells of both players
+            int winningCell = board.getThreatCell(player);
+            if (winningCell < 0) {
+                winningCell = board.getThreatCell(getOpponent(player));
+            }
+
+            if (winningCell >= 0) {
+                node.cells = new int[]{winningCell};
+            } else {
+                int count = board.getMoveCount() == 0 ? board.generateMoves(candidates) : generateCandidates();
+                node.cells = Arrays.copyOf(candidates, count);
+            }
+            node.children = new Node[node.cells.length];
+        }
+
+        //put every empty cell within CANDIDATE_DISTANCE of a played cell into the candidates, and return their count
+        private int generateCandidates() {
+            int size = board.getSize();
+            int count = 0;
+
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (board.getValue(x, y) == Board.Value.EMPTY && hasPlayedNeighbour(x, y)) {
+                        candidates[count++] = x * size + y;
+                    }
+                }
+            }
+
+            return count;
+        }
+
+        private boolean hasPlayedNeighbour(int x, int y) {
+            int size = board.getSize();
+
+            for (int i = Math.max(x - CANDIDATE_DISTANCE, 0); i <= Math.min(x + CANDIDATE_DISTANCE, size - 1); i++) {
+                for (int j = Math.max(y - CANDIDATE_DISTANCE, 0); j <= Math.min(y + CANDIDATE_DISTANCE, size - 1); j++) {
+                    if (board.getValue(i, j) != Board.Value.EMPTY) {
+                        return true;
+                    }
+                }
+            }
+
+            return false;
+        }
+
+        //add the child of a move which was not tried yet, chosen at random, so a small budget does not favour the first cells
+        private Node addChild(Node node) {
+            int index = node.childCount + nextInt(node.cells.length - node.childCount);
+            int cell = node.cells[index];
+            node.cells[index] = node.cells[node.childCount];
+            node.cells[node.childCount] = cell;
+
+            Node child = new Node(cell);
+            node.children[node.childCount++] = child;
+
+            return child;
+        }
+
+        //choose the child with the highest upper confidence bound, the share of its won playouts plus the exploration term
+        private Node selectChild(Node node) {
+            double logVisits = Math.log(node.visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+
+            for (int i = 0; i < node.childCount; i++) {
+                Node child = node.children[i];
+                double value = child.wins / child.visits + searcher.exploration * Math.sqrt(logVisits / child.visits);
+
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+
+            return best;
+        }
+
+        //play random moves from the position until the game is over or the playout is long enough, take them back,
+        //and get the result, 1 if X won, -1 if O won, and 0 if it is drawn, a game which is not over is won by the player
+        //the heuristic of the board favours, since a random game on a big board hardly ever ends the way the position
+        //points to, but the heuristic is usually right a few moves ahead, 2 * winLength moves give both players time
+        //to complete a line
+        //the moves are chosen from the empty cells generated into the buffer, and every chosen cell is swapped behind
+        //the cells left to choose from, so the playout allocates nothing
+        private int playRandomGame(Board.Value player) {
+            int count = board.generateMoves(moves);
+            int left = count;
+            int end = Math.max(count - 2 * board.getWinLength(), 0);
+
+            while (left > end && !board.isGameOver()) {
+                int index = nextInt(left--);
+                int cell = moves[index];
+                moves[index] = moves[left];
+                moves[left] = cell;
+
+                board.playMove(cell, player);
+                player = getOpponent(player);
+            }
+
+            int result = board.isXWinner() ? 1 : board.isOWinner() ? -1 : Integer.signum(board.getCurrentBoardScore());
+
+            for (int i = left; i < count; i++) {
+                board.undoMove(moves[i]);
+            }
+
+            return result;
+        }
+
+        //get a random number from 0 to bound - 1 with xorshift, which needs no synchronization unlike java.util.Random
+        private int nextInt(int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+
+            return (int) ((seed >>> 33) % bound);
+        }
+    }
+
+    private static Board.Value getOpponent(Board.Value player) {
+        return player == Board.Value.X ? Board.Value.O : Board.Value.X;
+    }
+
+    public static class Builder {
+
+        private int playouts = DEFAULT_PLAYOUTS;
+        private double exploration = DEFAULT_EXPLORATION;
+        private ForkJoinPool pool;
+        private SearchMetrics metrics;
+        private Random random = new Random();
+        private boolean reuseTrees = true;
+        private EvaluationCache evaluationCache;
+
+        //the number of playouts of every move, the node limit of the limits applies too
+        public Builder playouts(int playouts) {
+            if (playouts < 1) {
+                throw new IllegalArgumentException("Invalid number of playouts: " + playouts);
+            }
+
+            this.playouts = playouts;
+            return this;
+        }
+
+        public Builder exploration(double exploration) {
+            if (exploration < 0 || Double.isNaN(exploration)) {
+                throw new IllegalArgumentException("Invalid exploration constant: " + exploration);
+            }
+
+            this.exploration = exploration;
+            return this;
+        }
+
+        //every thread of the pool searches a tree of its own, and the visits of the moves of the root of all the trees
+        //are added up, unless the pool is null, then the calling thread searches a single tree
+        //the fork join classes are only on Android from API 21, so the app never sets a pool, and the search without one
+        //does not load them
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        //every search is recorded into the metrics, unless they are null, a playout counts as a node
+        public Builder metrics(SearchMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        //the random numbers the trees seed their random moves with, and the difficulties choose their moves with,
+        //a seeded one makes the searches on a single thread repeatable
+        public Builder random(Random random) {
+            if (random == null) {
+                throw new IllegalArgumentException("The random is missing");
+            }
+
+            this.random = random;
+            return this;
+        }
+
+        //whether the next move of a thread starts from the subtree of the tree of its last move, on by default
+        public Builder reuseTrees(boolean reuseTrees) {
+            this.reuseTrees = reuseTrees;
+            return this;
+        }
+
+        //the best moves of the searches are kept in the cache, and a cached move is played without a search,
+        //unless the cache is null, the cache is shared by all the threads, see EvaluationCache
+        public Builder evaluationCache(EvaluationCache evaluationCache) {
+            this.evaluationCache = evaluationCache;
+            return this;
+        }
+
+        public MonteCarloSearcher build() {
+            return new MonteCarloSearcher(this);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+
+public interface MoveOrdering {
+
+    //sort the given moves of the position, which is the given number of moves deep in the search, so the best ones come first
+    //the table move is the best move stored for the position in the transposition table, or -1 if there is none
+    void orderMoves(Board board, int[] moves, int moveTotal, int depth, Board.Value player, int tableMove);
+
+    //called when the given move was so good that the rest of the moves of the position got pruned,
+    //movesLeft is the number of moves the position was searched ahead
+    void onCutoff(int move, int depth, Board.Value player, int movesLeft);
+
+    //forget everything learned from the earlier searches
+    void clear();
+
+    //create an ordering with a copy of everything learned so far, for a search on another thread,
+    //since an ordering is only used by a single search at a time
+    MoveOrdering copy();
+}
@@ -0,0 +1,173 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+import com.conichi.tictactoe.entity.PositionCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class OpeningBook {
+
+    //the header of the book file, followed by the value and the best move mask of every position
+    private static final int MAGIC = 0x54545442;
+    private static final int VERSION = 1;
+
+    //every position of the 3x3 board has its own index, the base 3 index of PositionCodec
+    private static final int POSITIONS = 19683;
+
+    //the minimax value of every position, for the player on move
+    private final short[] values;
+
+    //the mask of all cells which are best moves in the position, it is 0 for positions
+    //which cannot be reached in a game or where the game is already over
+    private final short[] bestMoves;
+
+    private OpeningBook(short[] values, short[] bestMoves) {
+        this.values = values;
+        this.bestMoves = bestMoves;
+    }
+
+    //solve every position which can be reached from the empty board, with X playing first
+    //the positions are scored with the same heuristic as Board.runAlphaBetaMinimax(), so the values are the same
+    public static OpeningBook generate() {
+        OpeningBook book = new OpeningBook(new short[POSITIONS], new short[POSITIONS]);
+        book.solve(new Board(), Board.Value.X, 0, new boolean[POSITIONS]);
+        return book;
+    }
+
+    //the full minimax over all possible points of the position, memorized by the position index
+    //every point which reaches the best value is added to the best move mask
+    private int solve(Board board, Board.Value player, int index, boolean[] solved) {
+        if (solved[index]) {
+            return values[index];
+        }
+
+        int bestValue = 0;
+        int bestMoveMask = 0;
+
+        if (board.isGameOver()) {
+            bestValue = board.getCurrentBoardScore();
+        } else {
+            Board.Value opponent = player == Board.Value.X ? Board.Value.O : Board.Value.X;
+            int digit = player == Board.Value.X ? 1 : 2;
+
+            for (int cell = 0, power = 1; cell < 9; cell++, power *= 3) {
+                Point point = new Point(cell / 3, cell % 3);
+
+                if (board.getValue(cell / 3, cell % 3) == Board.Value.EMPTY) {
+                    board.playMove(point, player);
+                    int value = solve(board, opponent, index + digit * power, solved);
+                    board.playMove(point, Board.Value.EMPTY);
+
+                    if (bestMoveMask == 0 || (player == Board.Value.X ? value > bestValue : value < bestValue)) {
+                        bestValue = value;
+                        bestMoveMask = 1 << cell;
+                    } else if (value == bestValue) {
+                        bestMoveMask |= 1 << cell;
+                    }
+                }
+            }
+        }
+
+        values[index] = (short) bestValue;
+        bestMoves[index] = (short) bestMoveMask;
+        solved[index] = true;
+
+        return bestValue;
+    }
+
+    //get the best move of the given player from the book, or null if the position is not in the book
+    //(it is not a 3x3 position which can be reached with X playing first, or the game is already over)
+    //when there are several best moves the first one in row by row order is returned, the same one the search picks
+    public Point getBestMove(Board board, Board.Value player) {
+        if (board.getSize() != Board.DEFAULT_SIZE || board.getWinLength() != Board.DEFAULT_WIN_LENGTH) {
+            return null;
+        }
+
+        int index = (int) PositionCodec.encode(board);
+
+        //the positions which cannot be reached have no best moves, so only the count of the moves needs checking
+        Board.Value playerOnMove = board.getMoveCount() % 2 == 0 ? Board.Value.X : Board.Value.O;
+        if (player != playerOnMove || bestMoves[index] == 0) {
+            return null;
+        }
+
+        int cell = Integer.numberOfTrailingZeros(bestMoves[index]);
+        return new Point(cell / 3, cell % 3, values[index]);
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream));
+
+        dataOutputStream.writeInt(MAGIC);
+        dataOutputStream.writeInt(VERSION);
+        dataOutputStream.writeInt(POSITIONS);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            dataOutputStream.writeShort(values[i]);
+            dataOutputStream.writeShort(bestMoves[i]);
+        }
+
+        dataOutputStream.flush();
+    }
+
+    public static OpeningBook read(InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream));
+
+        if (dataInputStream.readInt() != MAGIC || dataInputStream.readInt() != VERSION
+                || dataInputStream.readInt() != POSITIONS) {
+            throw new IOException("Not an opening book file of version " + VERSION);
+        }
+
+        short[] values = new short[POSITIONS];
+        short[] bestMoves = new short[POSITIONS];
+
+        for (int i = 0; i < POSITIONS; i++) {
+            values[i] = dataInputStream.readShort();
+            bestMoves[i] = dataInputStream.readShort();
+        }
+
+        return new OpeningBook(values, bestMoves);
+    }
+
+    //load the book from the given file, if the file does not hold a valid book (on the first launch),
+    //the book is generated and saved to the file so the next launches only need to read it
+    public static OpeningBook load(File file) {
+        if (file.exists()) {
+            try {
+                FileInputStream inputStream = new FileInputStream(file);
+                try {
+                    return read(inputStream);
+                } finally {
+                    inputStream.close();
+                }
+            } catch (IOException e) {
+                //the file is broken or of an older version, so the book gets generated again
+            }
+        }
+
+        OpeningBook book = generate();
+
+        try {
+            FileOutputStream outputStream = new FileOutputStream(file);
+            try {
+                book.write(outputStream);
+            } finally {
+                outputStream.close();
+            }
+        } catch (IOException e) {
+            //the book could not be saved, it is generated again on the next launch
+        }
+
+        return book;
+    }
+}
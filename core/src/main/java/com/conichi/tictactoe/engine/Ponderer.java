@@ -0,0 +1,154 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Board.Value;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public class Ponderer {
+
+    //the most replies of the opponent the answers are searched for, the likely ones come first, see orderReplies()
+    public static final int DEFAULT_MAX_REPLIES = 8;
+
+    private final int maxReplies;
+
+    //the position after the move of the player, the player who answers the replies of the opponent,
+    //and the limits of every search, which are the limits of the real move, so the answers are as good as its move
+    private final Board position;
+    private final Value player;
+    private final Value opponent;
+    private final SearchLimits limits;
+    private final CancellationToken cancellationToken = new CancellationToken();
+
+    //the answers by the hash of the position after the reply, they are put in by the pondering thread and read by any thread
+    private final ConcurrentMap<Long, SearchResult> answers = new ConcurrentHashMap<>();
+
+    //the hash of the position being searched, and whether pondering stops once its search is over
+    private volatile long searchedHash;
+    private volatile boolean searching;
+    private volatile boolean stopping;
+
+    public Ponderer(Board position, Value player, SearchLimits limits) {
+        this(position, player, limits, DEFAULT_MAX_REPLIES);
+    }
+
+    //ponder the answers of the given player to the replies of the opponent in a copy of the given position,
+    //the cancellation token of the limits is replaced with the one of the ponderer, see stop()
+    public Ponderer(Board position, Value player, SearchLimits limits, int maxReplies) {
+        if (maxReplies < 1) {
+            throw new IllegalArgumentException("Invalid number of replies: " + maxReplies);
+        }
+
+        this.maxReplies = maxReplies;
+        this.position = new Board(position);
+        this.player = player;
+        this.opponent = player == Value.X ? Value.O : Value.X;
+        this.limits = limits.withCancellationToken(cancellationToken);
+    }
+
+    //search the answers of the likely replies with the given engine one after another on the calling thread,
+    //until all of them are searched or pondering gets stopped
+    public void ponder(Engine engine) {
+        int[] replies = new int[position.getCellCount()];
+        int replyTotal = Math.min(orderReplies(replies), maxReplies);
+
+        for (int i = 0; i < replyTotal; i++) {
+            Board board = new Board(position);
+            board.playMove(replies[i], opponent);
+
+            //stopping is checked before the search is published, a stop() after it sees the search and lets it finish
+            //if it is the search of the reply, and a stop() before it cancels the token, so the search returns at once
+            if (stopping || cancellationToken.isCancelled()) {
+                break;
+            }
+            searchedHash = board.getHash(0, player);
+            searching = true;
+
+            SearchResult answer = engine.bestMove(board, player, limits);
+            searching = false;
+            if (answer == null) {
+                break;
+            }
+
+            answers.put(searchedHash, answer);
+        }
+
+        searching = false;
+    }
+
+    //get the answer pondered for the given position, or null if its answer was not searched,
+    //the position has to be the pondered one with one reply of the opponent played on it
+    public SearchResult getAnswer(Board position) {
+        if (position.getSize() != this.position.getSize() || position.getWinLength() != this.position.getWinLength()
+                || position.getMoveCount() != this.position.getMoveCount() + 1) {
+            return null;
+        }
+
+        return answers.get(position.getHash(0, player));
+    }
+
+    //stop pondering once the opponent has replied with the given position, if its answer is being searched,
+    //the search goes on to the end, since it is the answer needed next, the other searches are cancelled at once
+    public void stop(Board position) {
+        stopping = true;
+
+        if (!searching || position == null || position.getHash(0, player) != searchedHash) {
+            cancellationToken.cancel();
+        }
+    }
+
+    //stop pondering, the search in progress is cancelled too
+    public void cancel() {
+        stopping = true;
+        cancellationToken.cancel();
+    }
+
+    //put the replies of the opponent into the given buffer so the likely ones come first, and return their count
+    //the replies which end the game need no answer and are left out
+    //if the player threatens to win, the only sensible reply is to block it, so the block goes first,
+    //the rest are ordered by the score the position gets from the reply, which is the reply a greedy opponent plays
+    private int orderReplies(int[] replies) {
+        if (position.isGameOver()) {
+            return 0;
+        }
+
+        Board board = new Board(position);
+        int moveTotal = board.generateMoves(replies);
+        int block = board.getThreatCell(player);
+
+        int replyTotal = 0;
+        int[] scores = new int[moveTotal];
+        for (int i = 0; i < moveTotal; i++) {
+            int reply = replies[i];
+            board.playMove(reply, opponent);
+            int score = opponent == Value.X ? board.getCurrentBoardScore() : -board.getCurrentBoardScore();
+            boolean gameOver = board.isGameOver();
+            board.undoMove(reply);
+
+            if (!gameOver) {
+                replies[replyTotal] = reply;
+                scores[replyTotal++] = reply == block ? Integer.MAX_VALUE : score;
+            }
+        }
+
+        //pick the best of the remaining replies to the front one at a time, only as many as can be pondered
+        for (int i = 0; i < Math.min(maxReplies, replyTotal - 1); i++) {
+            int best = i;
+            for (int j = i + 1; j < replyTotal; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+
+            int reply = replies[best];
+            int score = scores[best];
+            replies[best] = replies[i];
+            scores[best] = scores[i];
+            replies[i] = reply;
+            scores[i] = score;
+        }
+
+        return replyTotal;
+    }
+}
@@ -0,0 +1,810 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Board.Value;
+import com.conichi.tictactoe.entity.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class Search {
+
+    //the number of positions visited between two checks of the budget, so reading the clock does not slow the search down
+    private static final int BUDGET_CHECK_INTERVAL = 1024;
+
+    //the bounds of the negamax window, INFINITY can be negated without overflowing, unlike Integer.MIN_VALUE
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    //the score of a win on the spot, a win found deeper in the search scores less by the number of moves it takes,
+    //so the search prefers the shortest win and the longest loss, every score beyond MATE_BOUND is a win or a loss
+    //the heuristic never scores a position that high
+    public static final int MATE_SCORE = 1000000000;
+    public static final int MATE_BOUND = MATE_SCORE - Board.MAX_SIZE * Board.MAX_SIZE;
+
+    //the searched board, the search plays its moves on it and takes them back, so it is the same after every search
+    //a search is used by a single thread, since it keeps its state in its fields
+    private final Board board;
+    private final int size;
+    private final int cellCount;
+
+    //array contains the scores of points after running the Alpha-Beta pruning Minimax algorithm
+    private final ArrayList<Point> scoredPoints = new ArrayList<>();
+
+    //the scores of the points of the deepest depth the last iterative deepening search completed
+    private final ArrayList<Point> completedPoints = new ArrayList<>();
+
+    //stores the searched positions so that positions reached again through another move order or as a symmetric
+    //position do not get searched again
+    private TranspositionTable transpositionTable;
+
+    //the depth after which the search stops and the position is evaluated with the heuristic
+    private int maxDepth = Integer.MAX_VALUE;
+
+    //whether runNegamax() scores a won game as a win in some number of moves instead of with the heuristic
+    private boolean mateScores = true;
+
+    //whether every point of the root is searched with the whole window, so all of them get their exact scores,
+    //not only the best one, at the cost of pruning less
+    private boolean exactRootScores;
+
+    //the number of positions visited by the search, the budget of the search, and whether it ran out of it
+    //the node limit is the number of positions the current search may still visit
+    //the searches of the points of runParallelNegamax() add their positions to the count of the whole depth
+    //every BUDGET_CHECK_INTERVAL positions, and check the node limit against it, so they share the budget
+    private long nodes;
+    private AtomicLong sharedNodes;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long deadline = Long.MAX_VALUE;
+    private CancellationToken cancellationToken;
+    private boolean searchAborted;
+
+    //the deepest depth the last iterative deepening search completed
+    private int completedDepth;
+
+    //the counters of the search, they are only counted if the stats are set
+    private SearchStats stats;
+
+    //decides the order the moves of every position are searched in, the earlier the best move is searched,
+    //the more of the other moves get pruned
+    private MoveOrdering moveOrdering = TableMoveOrdering.INSTANCE;
+
+    //buffers the search generates the possible moves into, one for every number of played cells,
+    //so the moves of a position do not get overwritten while its children are searched
+    private final int[][] moveBuffers;
+
+    public Search(Board board) {
+        this(board, new TranspositionTable());
+    }
+
+    public Search(Board board, TranspositionTable transpositionTable) {
+        this.board = board;
+        this.transpositionTable = transpositionTable;
+        size = board.getSize();
+        cellCount = board.getCellCount();
+        moveBuffers = new int[cellCount][];
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public void setTranspositionTable(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    //set the depth after which the search evaluates the position with the heuristic instead of searching further,
+    //by default the search goes on until the end of the game, which is only feasible on small boards
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Invalid maximum search depth: " + maxDepth);
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    //get the number of positions visited by the last search, or by all depths of the last iterative deepening search
+    public long getSearchedNodes() {
+        return nodes;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    //set the stats the search counts into, they are added up over all the searches until they are set again,
+    //null switches the counting off
+    public void setStats(SearchStats stats) {
+        this.stats = stats;
+    }
+
+    public MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    //set the move ordering of the search, by default the table move of a position is searched first,
+    //and the rest of the moves in row by row order
+    public void setMoveOrdering(MoveOrdering moveOrdering) {
+        this.moveOrdering = moveOrdering;
+    }
+
+    public boolean isMateScores() {
+        return mateScores;
+    }
+
+    //set whether runNegamax() scores a won game by the number of moves it takes to win it,
+    //without mate scores it scores every position with the heuristic like runAlphaBetaMinimax() does, so they find the same values
+    public void setMateScores(boolean mateScores) {
+        this.mateScores = mateScores;
+    }
+
+    public boolean isExactRootScores() {
+        return exactRootScores;
+    }
+
+    //set whether all the points of the root get their exact scores, which is needed to choose between them by their scores,
+    //by default only the best point gets its exact score, and the others only get scores they cannot be better than
+    public void setExactRootScores(boolean exactRootScores) {
+        this.exactRootScores = exactRootScores;
+    }
+
+    //get the scores of the points of the deepest depth the last iterative deepening search completed,
+    //from the point of view of X, they are empty if it did not complete any
+    public List<Point> getScoredPoints() {
+        return completedPoints;
+    }
+
+    //get the deepest depth the last iterative deepening search completed, 0 if it did not complete any
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    //search the position deeper and deeper, one move at a time, until the search reaches the end of the game,
+    //the maximum depth, or runs out of its budget, and return the best move found by the deepest search which completed
+    //the time limit is in milliseconds and the node limit is in visited positions, 0 means there is no limit
+    //the search to depth 1 always completes, so there is a move even with a very small budget,
+    //only a cancelled search can return null, which means the game was abandoned and the move is not needed anymore
+    public Point runIterativeDeepening(Value player, long timeLimit, long nodeLimit, CancellationToken cancellationToken) {
+        return runIterativeDeepening(player, timeLimit, nodeLimit, cancellationToken, null, null);
+    }
+
+    //the same as the other runIterativeDeepening(), but every depth is searched with runParallelNegamax()
+    //on the given pool with the given tables of its threads, unless the pool is null
+    //every depth is searched with runNegamax(), and the search stops early once it finds a forced win or loss
+    public Point runIterativeDeepening(Value player, long timeLimit, long nodeLimit, CancellationToken cancellationToken,
+                                      ForkJoinPool pool, ThreadLocal<TranspositionTable> threadTables) {
+        int searchMaxDepth = maxDepth;
+        long startTime = System.nanoTime();
+        long searchedNodes = 0;
+        Point bestMove = null;
+
+        this.cancellationToken = cancellationToken;
+        completedDepth = 0;
+        completedPoints.clear();
+
+        try {
+            for (int depth = 1; depth <= Math.min(searchMaxDepth, cellCount - board.getMoveCount()) && !board.isGameOver(); depth++) {
+                maxDepth = depth;
+                searchAborted = false;
+
+                int value;
+                if (pool != null) {
+                    value = runParallelNegamax(player, pool, threadTables);
+                } else {
+                    value = runNegamax(-INFINITY, INFINITY, 0, player);
+                }
+                searchedNodes += nodes;
+
+                if (searchAborted) {
+                    break;
+                }
+
+                bestMove = getBestMove(player);
+                completedDepth = depth;
+                completedPoints.clear();
+                completedPoints.addAll(scoredPoints);
+
+                //a deeper search cannot find a shorter win, nor a way out of a forced loss
+                if (Math.abs(value) > MATE_BOUND) {
+                    break;
+                }
+
+                //after the first depth is done, the budget applies to the deeper searches
+                //and a deeper search is not started if the budget is already used up
+                this.nodeLimit = nodeLimit > 0 ? nodeLimit - searchedNodes : Long.MAX_VALUE;
+                deadline = timeLimit > 0 ? startTime + timeLimit * 1000000 : Long.MAX_VALUE;
+                nodes = 0;
+
+                if (this.nodeLimit <= 0 || isOutOfBudget()) {
+                    break;
+                }
+            }
+        } finally {
+            nodes = searchedNodes;
+            maxDepth = searchMaxDepth;
+            this.nodeLimit = Long.MAX_VALUE;
+            deadline = Long.MAX_VALUE;
+            this.cancellationToken = null;
+            searchAborted = false;
+        }
+
+        return cancellationToken != null && cancellationToken.isCancelled() ? null : bestMove;
+    }
+
+    //count the visited position, and every now and then check if the search is still within its budget
+    //once it is not, the search returns right away, and the scores it returns are thrown away
+    private boolean isSearchAborted(int depth) {
+        if (depth == 0) {
+            nodes = 0;
+        }
+        nodes++;
+        if (SearchStats.ENABLED && stats != null) {
+            stats.nodes++;
+            stats.maxDepth = Math.max(stats.maxDepth, depth);
+        }
+        if (nodes % BUDGET_CHECK_INTERVAL == 0) {
+            if (sharedNodes != null) {
+                sharedNodes.addAndGet(BUDGET_CHECK_INTERVAL);
+            }
+            if (isOutOfBudget()) {
+                searchAborted = true;
+            }
+        }
+
+        return searchAborted;
+    }
+
+    //check if the search got cancelled, visited too many positions, or ran out of time
+    private boolean isOutOfBudget() {
+        return (cancellationToken != null && cancellationToken.isCancelled())
+                || (sharedNodes != null ? sharedNodes.get() : nodes) >= nodeLimit
+                || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0);
+    }
+
+    //get the best move stored in the transposition table for the position with the given player on move, or -1
+    private int getTableMove(Value player) {
+        int symmetry = board.getCanonicalSymmetry();
+        int slot = transpositionTable.probe(board.getHash(symmetry, player));
+        int move = slot >= 0 ? transpositionTable.getMove(slot) : -1;
+
+        return move >= 0 && move < cellCount ? board.getOriginalCell(symmetry, move) : -1;
+    }
+
+    //this is the "brain" of the program, the Alpha-Beta pruning Minimax recursive deterministic fully observable algorithm
+    //used for scoring all the possible moves of the AI player by traversing the search tree of all possible moves
+    //it uses the Depth First Search (DFS) algorithm and uses the two agents (Max and Min)
+    //the Alpha-Beta pruning is used to reduce the searchable tree by cutting off all non-promising nodes
+    //which do not effect the end result by "remembering" the best move so far, which reduses the total search time
+    //depending on the search order, the algorithm can go twice as deep compared to a plain Minimax algorithm during the same time
+    //and it can have O(b^m/2) time complexity, compared to O(b^m) of a plain Minimax
+    //the search goes down to maxDepth, where the position is scored with the same heuristic as the end of the game
+    //it signals a pruned subtree with the Integer.MAX_VALUE and Integer.MIN_VALUE scores, which can end up as the scores
+    //of the points of depth 0, runNegamax() is the search the engine uses, and this one is kept as the reference it is checked against
+    public int runAlphaBetaMinimax(int alpha, int beta, int depth, Value player) {
+        //if beta is less or equal to alpha, it means that this part of the tree cannot contain promising nodes
+        //because they are out of scope, and we return either the highes or lowest value
+        if (beta <= alpha) {
+            if (SearchStats.ENABLED && stats != null) {
+                stats.cutoffs++;
+            }
+
+            if (player == Value.X) {
+                return Integer.MAX_VALUE;
+            }
+            else if (player == Value.O) {
+                return Integer.MIN_VALUE;
+            }
+        }
+
+        //count the position, and return right away if the search ran out of its budget
+        if (isSearchAborted(depth)) {
+            return 0;
+        }
+
+        //if during all the possible moves the game gets over, or the maximum depth is reached, evaluate the board
+        if (board.isGameOver() || depth >= maxDepth)  {
+            return board.getCurrentBoardScore();
+        }
+
+        //look the canonical position up in the transposition table, a stored exact value is returned right away
+        //and a stored bound is returned if it is already outside of the alpha-beta window
+        //a stored value can only be used if it was searched at least as many moves ahead as this search would go
+        //on depth 0 the position is always searched, since every possible point needs its score
+        int symmetry = board.getCanonicalSymmetry();
+        long key = board.getHash(symmetry, player);
+        int movesLeft = Math.min(cellCount - board.getMoveCount(), maxDepth - depth);
+        int originalAlpha = alpha, originalBeta = beta;
+        int tableMove = -1;
+
+        int slot = transpositionTable.probe(key);
+        if (slot >= 0) {
+            int value = transpositionTable.getValue(slot);
+            int bound = transpositionTable.getBound(slot);
+
+            if (depth > 0 && transpositionTable.getDepth(slot) >= movesLeft
+                    && (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && value >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && value <= alpha))) {
+                if (SearchStats.ENABLED && stats != null) {
+                    stats.tableCutoffs++;
+                }
+
+                return value;
+            }
+
+            //the stored best move is in the canonical position, so it is mapped back to this position
+            //the table can be shared by boards of other sizes, so a move off this board is ignored
+            int move = transpositionTable.getMove(slot);
+            if (move >= 0 && move < cellCount) {
+                tableMove = board.getOriginalCell(symmetry, move);
+            }
+        }
+
+        //if the starting depth is 0 (beginning of the algorithm), clear the scoredPoints array so it can get
+        //loaded with new scores
+        if (depth == 0) {
+            scoredPoints.clear();
+        }
+
+        //generate all possible points in row by row order, and let the move ordering sort them
+        int moveCount = board.getMoveCount();
+        if (moveBuffers[moveCount] == null) {
+            moveBuffers[moveCount] = new int[cellCount];
+        }
+        int[] moves = moveBuffers[moveCount];
+        int moveTotal = board.generateMoves(moves);
+
+        moveOrdering.orderMoves(board, moves, moveTotal, depth, player, tableMove);
+
+        //set max and min values to lowest/highest values
+        int maxValue = Integer.MIN_VALUE, minValue = Integer.MAX_VALUE;
+        int bestCell = -1;
+
+        //traverse all possible points to score each play
+        for (int i = 0; i < moveTotal; i++) {
+            int cell = moves[i];
+
+            //set currentScore to 0
+            int currentScore = 0;
+
+            board.playMove(cell, player);
+
+            //if the move evaluated is of player X, play move, run the algorithm for the opposite player and increase the depth
+            if (player == Value.X) {
+                currentScore = runAlphaBetaMinimax(alpha, beta, depth + 1, Value.O);
+
+                //get the largest value of maxValue and currentScore from the minimax for the next depth
+                if (bestCell < 0 || currentScore > maxValue) {
+                    maxValue = currentScore;
+                    bestCell = cell;
+                }
+
+                //set alpha to the largest value of currentScore and current alpha
+                alpha = Math.max(currentScore, alpha);
+            }
+            //if the move evaluated is of player O, play move, run the algorithm for the opposite player and increase the depth
+            else if (player == Value.O) {
+                currentScore = runAlphaBetaMinimax(alpha, beta, depth + 1, Value.X);
+
+                //get the lowest value of minValue and currentScore from the minimax for the next depth
+                if (bestCell < 0 || currentScore < minValue) {
+                    minValue = currentScore;
+                    bestCell = cell;
+                }
+
+                //set beta to the lowest value of currentScore and current beta
+                beta = Math.min(currentScore, beta);
+            }
+
+            //the scored point is added to the array only on depth 0
+            if (depth == 0) {
+                scoredPoints.add(new Point(cell / size, cell % size, currentScore));
+            }
+
+            //reset the value of the board which is played in the minimax for analysis
+            board.undoMove(cell);
+
+            //if the search ran out of its budget, the scores are not complete, so they are not stored
+            if (searchAborted) {
+                return 0;
+            }
+
+            //once the window is closed, the rest of the moves get pruned, which the move ordering learns from
+            if (beta <= alpha) {
+                moveOrdering.onCutoff(cell, depth, player, movesLeft);
+            }
+
+            //check if pruning has been made, so that the rest of the nodes do not need to get evaluated
+            if (currentScore == Integer.MAX_VALUE || currentScore == Integer.MIN_VALUE) {
+                break;
+            }
+        }
+
+        //in case of player X return maxValue, in case of player O return minValue
+        int value = player == Value.X ? maxValue : minValue;
+
+        //store the value with its bound type, a value outside of the original window is only a bound
+        //since some of the moves were pruned, and the best move is stored in the canonical position
+        int bound = TranspositionTable.EXACT;
+        if (value <= originalAlpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (value >= originalBeta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        }
+        transpositionTable.store(key, value, bound, movesLeft, board.getSymmetricCell(symmetry, bestCell));
+
+        return value;
+    }
+
+    //the negamax form of the Alpha-Beta pruning Minimax algorithm with principal variation search,
+    //the value of a position is from the point of view of the player on move, so both players maximize the negated value
+    //of the positions after their moves, and there is a single code path for X and O
+    //the first move is searched with the whole window, and it is expected to be the best one, the other moves are only
+    //searched with a null window to prove they are not better, and searched again with the whole window if they are
+    //the search is fail-soft, a value at or below alpha is an upper bound of the real value, and one at or above beta
+    //is a lower bound, so the points of depth 0 get either their real value or a bound which shows they are not the best
+    //the scores of the points are kept from the point of view of X, like runAlphaBetaMinimax() keeps them,
+    //so getBestMove() finds the best move of either, and the values are the same as the ones runAlphaBetaMinimax() finds
+    //unless the mate scores are on, which score a win by how many moves it takes
+    //the window is from -INFINITY to INFINITY for the whole search
+    public int runNegamax(int alpha, int beta, int depth, Value player) {
+        alpha = Math.max(alpha, -INFINITY);
+
+        //count the position, and return right away if the search ran out of its budget
+        if (isSearchAborted(depth)) {
+            return 0;
+        }
+
+        int sign = player == Value.X ? 1 : -1;
+
+        //if during all the possible moves the game gets over, or the maximum depth is reached, evaluate the board
+        if (board.isGameOver() || depth >= maxDepth) {
+            return sign * evaluate(depth);
+        }
+
+        //look the canonical position up in the transposition table, the values are stored from the point of view of X,
+        //so the value is negated and its bound is flipped for O, and the mate scores are stored as wins from the position
+        //a stored value can only be used if it was searched at least as many moves ahead as this search would go
+        //on depth 0 the position is always searched, since every possible point needs its score
+        int symmetry = board.getCanonicalSymmetry();
+        long key = board.getHash(symmetry, player);
+        int movesLeft = Math.min(cellCount - board.getMoveCount(), maxDepth - depth);
+        int originalAlpha = alpha;
+        int tableMove = -1;
+
+        int slot = transpositionTable.probe(key);
+        if (slot >= 0) {
+            int value = sign * fromTableValue(transpositionTable.getValue(slot), depth);
+            int bound = player == Value.X ? transpositionTable.getBound(slot) : flipBound(transpositionTable.getBound(slot));
+
+            if (depth > 0 && transpositionTable.getDepth(slot) >= movesLeft
+                    && (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER_BOUND && value >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && value <= alpha))) {
+                if (SearchStats.ENABLED && stats != null) {
+                    stats.tableCutoffs++;
+                }
+
+                return value;
+            }
+
+            int move = transpositionTable.getMove(slot);
+            if (move >= 0 && move < cellCount) {
+                tableMove = board.getOriginalCell(symmetry, move);
+            }
+        }
+
+        if (depth == 0) {
+            scoredPoints.clear();
+        }
+
+        //generate all possible points in row by row order, or only the forced one, and let the move ordering sort them
+        int moveCount = board.getMoveCount();
+        if (moveBuffers[moveCount] == null) {
+            moveBuffers[moveCount] = new int[cellCount];
+        }
+        int[] moves = moveBuffers[moveCount];
+        int moveTotal = generateMoves(moves, depth, player);
+
+        moveOrdering.orderMoves(board, moves, moveTotal, depth, player, tableMove);
+
+        Value opponent = player == Value.X ? Value.O : Value.X;
+        int bestValue = -INFINITY;
+        int bestCell = -1;
+
+        for (int i = 0; i < moveTotal; i++) {
+            int cell = moves[i];
+            int value;
+
+            board.playMove(cell, player);
+
+            if (depth == 0 && exactRootScores) {
+                value = -runNegamax(-beta, INFINITY, depth + 1, opponent);
+            } else if (i == 0) {
+                value = -runNegamax(-beta, -alpha, depth + 1, opponent);
+            } else {
+                value = -runNegamax(-alpha - 1, -alpha, depth + 1, opponent);
+
+                if (value > alpha && value < beta && !searchAborted) {
+                    value = -runNegamax(-beta, -alpha, depth + 1, opponent);
+                }
+            }
+
+            board.undoMove(cell);
+
+            //if the search ran out of its budget, the scores are not complete, so they are not stored
+            if (searchAborted) {
+                return 0;
+            }
+
+            if (depth == 0) {
+                scoredPoints.add(new Point(cell / size, cell % size, sign * value));
+            }
+
+            if (bestCell < 0 || value > bestValue) {
+                bestValue = value;
+                bestCell = cell;
+            }
+
+            alpha = Math.max(alpha, value);
+
+            //the move is too good for the opponent to allow it, so the rest of the moves do not need to get searched
+            if (alpha >= beta) {
+                if (SearchStats.ENABLED && stats != null) {
+                    stats.cutoffs++;
+                }
+                moveOrdering.onCutoff(cell, depth, player, movesLeft);
+                break;
+            }
+        }
+
+        int bound = TranspositionTable.EXACT;
+        if (bestValue <= originalAlpha) {
+            bound = TranspositionTable.UPPER_BOUND;
+        } else if (bestValue >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        }
+        transpositionTable.store(key, toTableValue(sign * bestValue, depth), player == Value.X ? bound : flipBound(bound),
+                movesLeft, board.getSymmetricCell(symmetry, bestCell));
+
+        return bestValue;
+    }
+
+    //generate the possible moves of the player into the buffer and return their count, unless the position is tactical:
+    //if the player can win on the spot, the win is the only move, and if the opponent can, taking its winning cell is,
+    //since every other move loses on the next move, the line counters of the board keep the winning cells, so the check
+    //costs nothing in a quiet position, and a forced position is searched with one move instead of all of them
+    //the value stays the same as the one of the search of all the moves, as long as the mate scores are on,
+    //and the loss is within the maximum depth, on depth 0 all the moves are generated if every point needs its exact score
+    private int generateMoves(int[] moves, int depth, Value player) {
+        if (mateScores && !(depth == 0 && exactRootScores)) {
+            Value opponent = player == Value.X ? Value.O : Value.X;
+            int cell = board.getThreatCell(player);
+
+            if (cell < 0 && depth + 2 <= maxDepth) {
+                cell = board.getThreatCell(opponent);
+            }
+
+            if (cell >= 0) {
+                moves[0] = cell;
+                return 1;
+            }
+        }
+
+        return board.generateMoves(moves);
+    }
+
+    //score the board from the point of view of X, a won game is scored by how many moves it took if the mate scores are on
+    private int evaluate(int depth) {
+        if (mateScores) {
+            if (board.isXWinner()) {
+                return MATE_SCORE - depth;
+            } else if (board.isOWinner()) {
+                return depth - MATE_SCORE;
+            }
+        }
+
+        return board.getCurrentBoardScore();
+    }
+
+    //a mate score counts the moves from the root of the search, but the stored one counts them from the position,
+    //so it stays right when the position is reached on another depth
+    private static int toTableValue(int value, int depth) {
+        if (value > MATE_BOUND) {
+            return value + depth;
+        } else if (value < -MATE_BOUND) {
+            return value - depth;
+        }
+
+        return value;
+    }
+
+    private static int fromTableValue(int value, int depth) {
+        if (value > MATE_BOUND) {
+            return value - depth;
+        } else if (value < -MATE_BOUND) {
+            return value + depth;
+        }
+
+        return value;
+    }
+
+    //a lower bound of the value of one player is an upper bound of the value of the other one
+    private static int flipBound(int bound) {
+        if (bound == TranspositionTable.LOWER_BOUND) {
+            return TranspositionTable.UPPER_BOUND;
+        } else if (bound == TranspositionTable.UPPER_BOUND) {
+            return TranspositionTable.LOWER_BOUND;
+        }
+
+        return bound;
+    }
+
+    //score all the possible points like runNegamax() does on depth 0, but split them between the threads of the pool,
+    //so the degree of parallelism is the parallelism of the pool
+    //the first point is searched on this board to get a bound for the other points, the young brothers wait for the eldest,
+    //then the other points are searched at the same time with a null window, each one on its own copy of the board,
+    //and the ones which turn out to be better are searched again with the whole window above the bound
+    //every thread searches with its own table of the given ones, since the tables are not thread-safe, and keeps it
+    //from one depth to the next, so the deeper searches find the moves of the shallower ones in it
+    //all the points get the same bound, so the best move and its score do not depend on the order the threads finish in,
+    //and they are the same as the ones runNegamax() finds
+    //the budget of runIterativeDeepening() is shared by all the points, see sharedNodes
+    public int runParallelNegamax(Value player, ForkJoinPool pool, ThreadLocal<TranspositionTable> threadTables) {
+        nodes = 0;
+        int sign = player == Value.X ? 1 : -1;
+
+        //if the game is over, there are no points to score, evaluate the board
+        if (board.isGameOver()) {
+            return sign * evaluate(0);
+        }
+
+        scoredPoints.clear();
+
+        int[] moves = new int[cellCount];
+        int moveTotal = generateMoves(moves, 0, player);
+        moveOrdering.orderMoves(board, moves, moveTotal, 0, player, getTableMove(player));
+        Value opponent = player == Value.X ? Value.O : Value.X;
+
+        board.playMove(moves[0], player);
+        int firstValue = -runNegamax(-INFINITY, INFINITY, 1, opponent);
+        board.undoMove(moves[0]);
+        scoredPoints.add(new Point(moves[0] / size, moves[0] % size, sign * firstValue));
+
+        if (searchAborted) {
+            return 0;
+        }
+
+        AtomicLong depthNodes = new AtomicLong(nodes);
+        final RootMoveSearch[] searches = new RootMoveSearch[moveTotal - 1];
+        for (int i = 1; i < moveTotal; i++) {
+            searches[i - 1] = new RootMoveSearch(this, moves[i], player, firstValue, threadTables, depthNodes);
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(searches);
+            }
+        });
+
+        int bestValue = firstValue;
+
+        for (RootMoveSearch search : searches) {
+            scoredPoints.add(new Point(search.cell / size, search.cell % size, sign * search.value));
+            nodes += search.nodes;
+            if (search.stats != null) {
+                stats.add(search.stats);
+            }
+            searchAborted |= search.aborted;
+            bestValue = Math.max(bestValue, search.value);
+        }
+
+        return bestValue;
+    }
+
+    //the search of a single point of the root on its own copy of the board, used by runParallelNegamax()
+    private static class RootMoveSearch extends RecursiveAction {
+
+        //the searches are never serialized, the fork join tasks only happen to be serializable
+        private static final long serialVersionUID = 1L;
+
+        private final Search parent;
+        private final int cell;
+        private final Value player;
+        private final int alpha;
+        private final ThreadLocal<TranspositionTable> threadTables;
+        private final AtomicLong sharedNodes;
+
+        private int value;
+        private long nodes;
+        private SearchStats stats;
+        private boolean aborted;
+
+        //every point gets its own copy of the move ordering, made before the points are searched at the same time
+        private final MoveOrdering moveOrdering;
+
+        RootMoveSearch(Search parent, int cell, Value player, int alpha, ThreadLocal<TranspositionTable> threadTables,
+                       AtomicLong sharedNodes) {
+            this.parent = parent;
+            this.cell = cell;
+            this.player = player;
+            this.alpha = alpha;
+            this.threadTables = threadTables;
+            this.sharedNodes = sharedNodes;
+            moveOrdering = parent.moveOrdering.copy();
+        }
+
+        @Override
+        protected void compute() {
+            Search search = new Search(new Board(parent.board), threadTables.get());
+            search.maxDepth = parent.maxDepth;
+            search.mateScores = parent.mateScores;
+            search.nodeLimit = parent.nodeLimit;
+            search.sharedNodes = sharedNodes;
+            search.deadline = parent.deadline;
+            search.cancellationToken = parent.cancellationToken;
+            search.stats = parent.stats != null ? new SearchStats() : null;
+            search.moveOrdering = moveOrdering;
+
+            //the budget is checked before the point is searched, since the search of a point only checks it once
+            //every BUDGET_CHECK_INTERVAL positions, and the points left once the budget is used up are not searched at all
+            if (search.isOutOfBudget()) {
+                aborted = true;
+                return;
+            }
+
+            Value opponent = player == Value.X ? Value.O : Value.X;
+            search.board.playMove(cell, player);
+            if (parent.exactRootScores) {
+                value = -search.runNegamax(-INFINITY, INFINITY, 1, opponent);
+            } else {
+                value = -search.runNegamax(-alpha - 1, -alpha, 1, opponent);
+                if (value > alpha && !search.searchAborted) {
+                    value = -search.runNegamax(-INFINITY, -alpha, 1, opponent);
+                }
+            }
+
+            //the positions since the last check are added too, so the points searched later see all of them
+            sharedNodes.addAndGet(search.nodes % BUDGET_CHECK_INTERVAL);
+
+            nodes = search.nodes;
+            stats = search.stats;
+            aborted = search.searchAborted;
+        }
+    }
+
+    //traverse the scoredPoints array to find the best move according to the score
+    //depending on the X and O player, the search is done for the MAX and MIN value
+    public Point getBestMove(Value player) {
+        int MAX = Integer.MIN_VALUE;
+        int MIN = Integer.MAX_VALUE;
+
+        int bestMoveIndex = -1;
+
+        for (int i = 0; i < scoredPoints.size(); i++) {
+            //get the highest scored point for the X player
+            if (player == Value.X && MAX < scoredPoints.get(i).getScore()) {
+                MAX = scoredPoints.get(i).getScore();
+                bestMoveIndex = i;
+            }
+            //get the lowest scored point for the O player
+            else if (player == Value.O && MIN > scoredPoints.get(i).getScore()) {
+                MIN = scoredPoints.get(i).getScore();
+                bestMoveIndex = i;
+            }
+        }
+
+        return scoredPoints.get(bestMoveIndex);
+    }
+}
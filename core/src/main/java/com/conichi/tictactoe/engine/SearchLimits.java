@@ -0,0 +1,120 @@
+package com.conichi.tictactoe.engine;
+
+public class SearchLimits {
+
+    //no limits, the search goes on until the end of the game
+    public static final SearchLimits NONE = new Builder().build();
+
+    //the maximum depth in moves, the time limit in milliseconds, and the node limit in visited positions,
+    //0 means there is no limit, and the search stops early if the token gets cancelled
+    private final int maxDepth;
+    private final long timeLimit;
+    private final long nodeLimit;
+    private final CancellationToken cancellationToken;
+
+    //the level the engine plays at, its depth and node limits are already included in the limits
+    private final Difficulty difficulty;
+
+    private SearchLimits(Builder builder) {
+        maxDepth = (int) getLowerLimit(builder.maxDepth, builder.difficulty.getMaxDepth());
+        timeLimit = builder.timeLimit;
+        nodeLimit = getLowerLimit(builder.nodeLimit, builder.difficulty.getNodeLimit());
+        cancellationToken = builder.cancellationToken;
+        difficulty = builder.difficulty;
+    }
+
+    //get the lower of two limits, where 0 means there is no limit
+    private static long getLowerLimit(long limit, long otherLimit) {
+        if (limit == 0 || otherLimit == 0) {
+            return limit + otherLimit;
+        }
+
+        return Math.min(limit, otherLimit);
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getTimeLimit() {
+        return timeLimit;
+    }
+
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    //get the same limits with the given cancellation token instead of this one
+    public SearchLimits withCancellationToken(CancellationToken cancellationToken) {
+        return new Builder()
+                .maxDepth(maxDepth)
+                .timeLimit(timeLimit)
+                .nodeLimit(nodeLimit)
+                .cancellationToken(cancellationToken)
+                .difficulty(difficulty)
+                .build();
+    }
+
+    public static class Builder {
+
+        private int maxDepth;
+        private long timeLimit;
+        private long nodeLimit;
+        private CancellationToken cancellationToken;
+        private Difficulty difficulty = Difficulty.UNBEATABLE;
+
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth < 0) {
+                throw new IllegalArgumentException("Invalid maximum search depth: " + maxDepth);
+            }
+
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder timeLimit(long timeLimit) {
+            if (timeLimit < 0) {
+                throw new IllegalArgumentException("Invalid time limit: " + timeLimit);
+            }
+
+            this.timeLimit = timeLimit;
+            return this;
+        }
+
+        public Builder nodeLimit(long nodeLimit) {
+            if (nodeLimit < 0) {
+                throw new IllegalArgumentException("Invalid node limit: " + nodeLimit);
+            }
+
+            this.nodeLimit = nodeLimit;
+            return this;
+        }
+
+        public Builder cancellationToken(CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
+        //the level the engine plays at, unbeatable by default, the lower of its limits and the other limits apply
+        public Builder difficulty(Difficulty difficulty) {
+            if (difficulty == null) {
+                throw new IllegalArgumentException("The difficulty is missing");
+            }
+
+            this.difficulty = difficulty;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
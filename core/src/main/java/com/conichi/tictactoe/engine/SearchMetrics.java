@@ -0,0 +1,116 @@
+package com.conichi.tictactoe.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SearchMetrics {
+
+    //the searches recorded from all threads, the time every move took, how fast the searches were,
+    //and how many positions they visited, the moves from the opening book only count for the time
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong bookMoves = new AtomicLong();
+    private final AtomicLong cutoffs = new AtomicLong();
+    private final AtomicLong tableCutoffs = new AtomicLong();
+    private final Histogram latency = new Histogram();
+    private final Histogram nodesPerSecond = new Histogram();
+    private final Histogram nodes = new Histogram();
+    private final Histogram depth = new Histogram();
+
+    //record the result of a search, it is safe to call from many threads
+    public void record(SearchResult result) {
+        moves.incrementAndGet();
+        latency.record(result.getTimeNanos() / 1000);
+
+        if (result.isFromBook()) {
+            bookMoves.incrementAndGet();
+            return;
+        }
+
+        nodes.record(result.getNodes());
+        depth.record(result.getDepth());
+        if (result.getTimeNanos() > 0) {
+            nodesPerSecond.record(result.getNodes() * 1000000000 / result.getTimeNanos());
+        }
+
+        if (result.getStats() != null) {
+            cutoffs.addAndGet(result.getStats().getCutoffs());
+            tableCutoffs.addAndGet(result.getStats().getTableCutoffs());
+        }
+    }
+
+    public long getMoves() {
+        return moves.get();
+    }
+
+    public long getBookMoves() {
+        return bookMoves.get();
+    }
+
+    public long getCutoffs() {
+        return cutoffs.get();
+    }
+
+    public long getTableCutoffs() {
+        return tableCutoffs.get();
+    }
+
+    //the time of every move in microseconds
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    public Histogram getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    public Histogram getNodes() {
+        return nodes;
+    }
+
+    public Histogram getDepth() {
+        return depth;
+    }
+
+    public void reset() {
+        moves.set(0);
+        bookMoves.set(0);
+        cutoffs.set(0);
+        tableCutoffs.set(0);
+        latency.reset();
+        nodesPerSecond.reset();
+        nodes.reset();
+        depth.reset();
+    }
+
+    //export the metrics as lines of text, one line per histogram
+    public String toText() {
+        return "moves " + moves.get() + " book " + bookMoves.get() + "\n"
+                + "latency_us " + toText(latency) + "\n"
+                + "nodes_per_second " + toText(nodesPerSecond) + "\n"
+                + "nodes " + toText(nodes) + "\n"
+                + "depth " + toText(depth) + "\n"
+                + "cutoffs " + cutoffs.get() + " table_cutoffs " + tableCutoffs.get() + "\n";
+    }
+
+    //export the metrics as a json object
+    public String toJson() {
+        return "{\"moves\":" + moves.get()
+                + ",\"bookMoves\":" + bookMoves.get()
+                + ",\"latencyMicros\":" + toJson(latency)
+                + ",\"nodesPerSecond\":" + toJson(nodesPerSecond)
+                + ",\"nodes\":" + toJson(nodes)
+                + ",\"depth\":" + toJson(depth)
+                + ",\"cutoffs\":" + cutoffs.get()
+                + ",\"tableCutoffs\":" + tableCutoffs.get() + "}";
+    }
+
+    private static String toText(Histogram histogram) {
+        return "count " + histogram.getCount() + " mean " + histogram.getMean() + " p50 " + histogram.getPercentile(50)
+                + " p99 " + histogram.getPercentile(99) + " max " + histogram.getMax();
+    }
+
+    private static String toJson(Histogram histogram) {
+        return "{\"count\":" + histogram.getCount() + ",\"mean\":" + histogram.getMean()
+                + ",\"p50\":" + histogram.getPercentile(50) + ",\"p99\":" + histogram.getPercentile(99)
+                + ",\"max\":" + histogram.getMax() + "}";
+    }
+}
@@ -0,0 +1,67 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Point;
+
+public class SearchResult {
+
+    //the best move with its score from the point of view of X, the depth of the deepest completed search, the number of visited positions,
+    //the time the search took in nanoseconds, and whether the move came from the opening book without a search
+    //the stats are only there if the searcher collects them
+    private final Point move;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeNanos;
+    private final boolean fromBook;
+    private final SearchStats stats;
+
+    public SearchResult(Point move, int score, int depth, long nodes, long timeNanos, boolean fromBook, SearchStats stats) {
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeNanos = timeNanos;
+        this.fromBook = fromBook;
+        this.stats = stats;
+    }
+
+    public Point getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    //get the time the search took in milliseconds
+    public long getTime() {
+        return timeNanos / 1000000;
+    }
+
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+
+    public boolean isFromBook() {
+        return fromBook;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return "move " + move.getX() + "," + move.getY() + " score " + score + " depth " + depth
+                + " nodes " + nodes + " time " + getTime() + "ms" + (fromBook ? " (book)" : "")
+                + (stats != null ? " " + stats : "");
+    }
+}
@@ -0,0 +1,45 @@
+package com.conichi.tictactoe.engine;
+
+public class SearchStats {
+
+    //set to false to compile the counting out of the search, the counters then stay 0
+    //the counting can also be switched off for a single search by not giving it a SearchStats
+    public static final boolean ENABLED = true;
+
+    //the number of visited positions, the number of times the rest of the moves of a position got pruned,
+    //the number of positions whose value came from the transposition table, and the deepest depth visited
+    //the fields are updated by the search directly, so counting costs no more than an increment
+    long nodes;
+    long cutoffs;
+    long tableCutoffs;
+    int maxDepth;
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getTableCutoffs() {
+        return tableCutoffs;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    //add the counters of another search, the searches of the points of a parallel search are added to the whole search
+    void add(SearchStats stats) {
+        nodes += stats.nodes;
+        cutoffs += stats.cutoffs;
+        tableCutoffs += stats.tableCutoffs;
+        maxDepth = Math.max(maxDepth, stats.maxDepth);
+    }
+
+    @Override
+    public String toString() {
+        return "nodes " + nodes + " cutoffs " + cutoffs + " table cutoffs " + tableCutoffs + " max depth " + maxDepth;
+    }
+}
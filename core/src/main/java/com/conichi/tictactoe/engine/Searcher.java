@@ -0,0 +1,243 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class Searcher implements Engine {
+
+    //the configuration never changes, so a searcher can be shared by any number of threads
+    //every call searches its own copy of the position, and every thread keeps its own transposition table and move ordering,
+    //which it reuses between its searches, since they are not thread-safe, the threads of the pool keep theirs
+    //between the depths and the searches as well
+    private final OpeningBook openingBook;
+    private final EvaluationCache evaluationCache;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<TranspositionTable> threadTables;
+    private final ThreadLocal<MoveOrdering> threadOrderings;
+
+    //the metrics every search is recorded into, the searches only count their stats if there are metrics
+    private final SearchMetrics metrics;
+
+    //whether a win is scored by the number of moves it takes, see Search.setMateScores()
+    private final boolean mateScores;
+
+    //chooses the moves of the difficulties which do not always play the best move, it is thread-safe
+    private final Random random;
+
+    //a searcher with no opening book, the default transposition table and the heuristic move ordering
+    public Searcher() {
+        this(new Builder());
+    }
+
+    private Searcher(Builder builder) {
+        final int tableCapacity = builder.tableCapacity;
+        final TranspositionTable.ReplacementPolicy replacementPolicy = builder.replacementPolicy;
+        final MoveOrdering moveOrdering = builder.moveOrdering.copy();
+
+        openingBook = builder.openingBook;
+        evaluationCache = builder.evaluationCache;
+        pool = builder.pool;
+        metrics = builder.metrics;
+        mateScores = builder.mateScores;
+        random = builder.random;
+        threadTables = new ThreadLocal<TranspositionTable>() {
+            @Override
+            protected TranspositionTable initialValue() {
+                return new TranspositionTable(tableCapacity, replacementPolicy);
+            }
+        };
+        threadOrderings = new ThreadLocal<MoveOrdering>() {
+            @Override
+            protected MoveOrdering initialValue() {
+                return moveOrdering.copy();
+            }
+        };
+    }
+
+    @Override
+    public SearchResult bestMove(Board position, Board.Value player, SearchLimits limits) {
+        long startTime = System.nanoTime();
+
+        if (position.isGameOver()) {
+            return null;
+        }
+
+        Difficulty difficulty = limits.getDifficulty();
+
+        if (openingBook != null && difficulty.usesOpeningBook()) {
+            Point move = openingBook.getBestMove(position, player);
+
+            if (move != null) {
+                return record(new SearchResult(move, move.getScore(), 0, 0, System.nanoTime() - startTime, true, null));
+            }
+        }
+
+        //the levels which do not always play the best move are not cached, since their move has to change from game to game
+        boolean cached = evaluationCache != null && !difficulty.isRandomized();
+        int emptyCells = position.getCellCount() - position.getMoveCount();
+
+        if (cached) {
+            SearchResult result = evaluationCache.get(position, player, getEngineKey(), limits);
+
+            if (result != null) {
+                return record(new SearchResult(result.getMove(), result.getScore(), result.getDepth(), 0,
+                        System.nanoTime() - startTime, false, null));
+            }
+        }
+
+        //a win by a sequence of threats is played without the full search, which would have to go as deep to find it,
+        //the levels which do not always play the best move need the scores of all the moves, so they always search,
+        //and with a depth limit only the wins within the limit are played, the search would not see the longer ones
+        if (mateScores && !difficulty.isRandomized()) {
+            ThreatSearch threatSearch = new ThreatSearch(new Board(position));
+            int cell = threatSearch.findWinningMove(player, limits.getMaxDepth());
+
+            if (cell >= 0) {
+                int plies = threatSearch.getWinningPlies();
+                Point move = new Point(cell / position.getSize(), cell % position.getSize(),
+                        player == Board.Value.X ? Search.MATE_SCORE - plies : plies - Search.MATE_SCORE);
+
+                if (cached) {
+                    evaluationCache.put(position, player, getEngineKey(), limits, move, move.getScore(), plies, true);
+                }
+
+                return record(new SearchResult(move, move.getScore(), plies, threatSearch.getSearchedNodes(),
+                        System.nanoTime() - startTime, false, null));
+            }
+        }
+
+        //the move ordering starts every search from scratch, so the same position always gets the same move
+        MoveOrdering moveOrdering = threadOrderings.get();
+        moveOrdering.clear();
+
+        Search search = new Search(new Board(position), threadTables.get());
+        search.setMoveOrdering(moveOrdering);
+        search.setMateScores(mateScores);
+        search.setExactRootScores(difficulty.isRandomized());
+        if (limits.getMaxDepth() > 0) {
+            search.setMaxDepth(limits.getMaxDepth());
+        }
+        if (metrics != null) {
+            search.setStats(new SearchStats());
+        }
+
+        Point move = search.runIterativeDeepening(player, limits.getTimeLimit(), limits.getNodeLimit(),
+                limits.getCancellationToken(), pool, threadTables);
+
+        if (move == null) {
+            return null;
+        }
+
+        if (difficulty.isRandomized()) {
+            move = difficulty.selectMove(search.getScoredPoints(), player, random);
+        }
+
+        //a search which reached the end of the game, or found a forced win or loss, is as good as a search to the end,
+        //and a move which was found before the first depth was completed is not worth keeping
+        int depth = search.getCompletedDepth();
+        if (cached && depth > 0) {
+            boolean solved = depth >= emptyCells || Math.abs(move.getScore()) > Search.MATE_BOUND;
+            evaluationCache.put(position, player, getEngineKey(), limits, move, move.getScore(), depth, solved);
+        }
+
+        return record(new SearchResult(move, move.getScore(), search.getCompletedDepth(), search.getSearchedNodes(),
+                System.nanoTime() - startTime, false, search.getStats()));
+    }
+
+    //get the key the moves of the searcher are cached with, the mate scores change the scores,
+    //so the searchers with and without them keep their moves apart, and apart from the other engines
+    private long getEngineKey() {
+        return mateScores ? 1 : 2;
+    }
+
+    private SearchResult record(SearchResult result) {
+        if (metrics != null) {
+            metrics.record(result);
+        }
+
+        return result;
+    }
+
+    public static class Builder {
+
+        private OpeningBook openingBook;
+        private EvaluationCache evaluationCache;
+        private int tableCapacity = TranspositionTable.DEFAULT_CAPACITY;
+        private TranspositionTable.ReplacementPolicy replacementPolicy = TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+        private ForkJoinPool pool;
+        private SearchMetrics metrics;
+        private MoveOrdering moveOrdering = new HeuristicMoveOrdering();
+        private boolean mateScores = true;
+        private Random random = new Random();
+
+        //the opening book is looked at before searching, unless it is null
+        public Builder openingBook(OpeningBook openingBook) {
+            this.openingBook = openingBook;
+            return this;
+        }
+
+        //the best moves of the searches are kept in the cache, and a cached move is played without a search,
+        //unless the cache is null, the cache is shared by all the threads, see EvaluationCache
+        public Builder evaluationCache(EvaluationCache evaluationCache) {
+            this.evaluationCache = evaluationCache;
+            return this;
+        }
+
+        public Builder transpositionTable(int capacity, TranspositionTable.ReplacementPolicy replacementPolicy) {
+            //create a table right away, so an invalid capacity fails here instead of in the first search
+            new TranspositionTable(capacity, replacementPolicy);
+
+            tableCapacity = capacity;
+            this.replacementPolicy = replacementPolicy;
+            return this;
+        }
+
+        //the points of the root are split between the threads of the pool, unless it is null
+        //the fork join classes are only on Android from API 21, so the app never sets a pool, and the search without one
+        //does not load them
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        //every search is recorded into the metrics, unless they are null
+        public Builder metrics(SearchMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        //every thread searches with its own copy of the given move ordering
+        public Builder moveOrdering(MoveOrdering moveOrdering) {
+            if (moveOrdering == null) {
+                throw new IllegalArgumentException("The move ordering is missing");
+            }
+
+            this.moveOrdering = moveOrdering;
+            return this;
+        }
+
+        //whether a win is scored by the number of moves it takes, so the shortest win is played, on by default
+        public Builder mateScores(boolean mateScores) {
+            this.mateScores = mateScores;
+            return this;
+        }
+
+        //the random numbers the difficulties which do not always play the best move choose their moves with,
+        //a seeded one makes the games repeatable
+        public Builder random(Random random) {
+            if (random == null) {
+                throw new IllegalArgumentException("The random is missing");
+            }
+
+            this.random = random;
+            return this;
+        }
+
+        public Searcher build() {
+            return new Searcher(this);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+
+public class TableMoveOrdering implements MoveOrdering {
+
+    //the ordering learns nothing, so a single instance can be shared by all searches
+    public static final TableMoveOrdering INSTANCE = new TableMoveOrdering();
+
+    private TableMoveOrdering() {
+    }
+
+    //keep the moves in row by row order and move the table move to the front,
+    //except on depth 0, where the points are scored in row by row order like the search always did
+    @Override
+    public void orderMoves(Board board, int[] moves, int moveTotal, int depth, Board.Value player, int tableMove) {
+        if (depth == 0 || tableMove < 0) {
+            return;
+        }
+
+        for (int i = 0; i < moveTotal; i++) {
+            if (moves[i] == tableMove) {
+                System.arraycopy(moves, 0, moves, 1, i);
+                moves[0] = tableMove;
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void onCutoff(int move, int depth, Board.Value player, int movesLeft) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public MoveOrdering copy() {
+        return this;
+    }
+}
@@ -0,0 +1,170 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Board.Value;
+
+public class ThreatSearch {
+
+    //the positions a search may visit, so a position full of threats cannot hold up the move
+    public static final int DEFAULT_NODE_LIMIT = 5000;
+
+    //the searched board, the search plays its moves on it and takes them back, so it is the same after every search
+    private final Board board;
+    private final int cellCount;
+    private final int nodeLimit;
+
+    //buffers the moves of every number of played cells are generated into, and the buffer the threats are put into,
+    //which holds two of them, since two threats are as many as it takes to win
+    private final int[][] moveBuffers;
+    private final int[] threatCells = new int[2];
+
+    //the positions visited by the last search, whether it ran out of them, the longest sequence of the current depth,
+    //and whether a sequence was cut off by it, a deeper search is only started if one was
+    private long nodes;
+    private boolean searchAborted;
+    private int maxPlies;
+    private boolean depthLimited;
+
+    //the first move of the winning sequence the last search found, and the number of moves the sequence takes
+    private int winningMove = -1;
+    private int winningPlies;
+
+    public ThreatSearch(Board board) {
+        this(board, DEFAULT_NODE_LIMIT);
+    }
+
+    public ThreatSearch(Board board, int nodeLimit) {
+        this.board = board;
+        this.nodeLimit = nodeLimit;
+        cellCount = board.getCellCount();
+        moveBuffers = new int[cellCount + 1][];
+    }
+
+    //find a move of the player which wins by a sequence of threats, and return its cell, or -1 if there is none
+    //a threat is a line the player needs only one more cell of, every move of the attacker makes one, so the defender
+    //has to take its cell, until the attacker either makes two threats at once, a fork which cannot be blocked,
+    //or gets a win on the spot, the defender has no choice in the sequence, so it is a forced win
+    //if the defender has a threat, the attacker has to take its cell, and that move has to make a threat too,
+    //so a position with two threats of the defender has no sequence, the wins which need a quiet move are left to the full search
+    //the sequences are searched with a growing number of moves, so the shortest one is found
+    public int findWinningMove(Value player) {
+        return findWinningMove(player, 0);
+    }
+
+    //find a move of the player which wins by a sequence of threats of at most the given number of moves,
+    //counting the moves of both players, or of any number of moves if it is 0, so a search with a depth limit
+    //does not play a win deeper than it could see
+    public int findWinningMove(Value player, int maxMoves) {
+        winningMove = -1;
+        winningPlies = 0;
+        nodes = 0;
+        searchAborted = false;
+
+        if (board.isGameOver()) {
+            return -1;
+        }
+
+        Value opponent = player == Value.X ? Value.O : Value.X;
+        int emptyCells = cellCount - board.getMoveCount();
+        int longest = maxMoves > 0 ? Math.min(maxMoves, emptyCells) : emptyCells;
+        depthLimited = true;
+
+        for (maxPlies = 1; maxPlies <= longest && depthLimited && !searchAborted; maxPlies += 2) {
+            depthLimited = false;
+            int plies = findSequence(player, opponent, 0);
+
+            if (plies > 0) {
+                winningPlies = plies;
+                return winningMove;
+            }
+        }
+
+        return -1;
+    }
+
+    //get the number of moves of the winning sequence of the last search, counting the moves of both players
+    public int getWinningPlies() {
+        return winningPlies;
+    }
+
+    public long getSearchedNodes() {
+        return nodes;
+    }
+
+    //get the number of moves it takes the attacker to win from the position, counting the moves of both players,
+    //or 0 if there is no sequence of threats within maxPlies, the first move is kept in winningMove on depth 0
+    private int findSequence(Value attacker, Value defender, int depth) {
+        if (++nodes > nodeLimit) {
+            searchAborted = true;
+            return 0;
+        }
+
+        int winningCell = board.getThreatCell(attacker);
+        if (winningCell >= 0) {
+            if (depth == 0) {
+                winningMove = winningCell;
+            }
+            return 1;
+        }
+
+        //the attacker has to make a threat and a fork in the least, which takes three moves
+        int defenderThreats = board.getThreatCells(defender, threatCells);
+        if (defenderThreats > 1) {
+            return 0;
+        } else if (depth + 3 > maxPlies) {
+            depthLimited = true;
+            return 0;
+        }
+
+        int moveCount = board.getMoveCount();
+        if (moveBuffers[moveCount] == null) {
+            moveBuffers[moveCount] = new int[cellCount];
+        }
+        int[] moves = moveBuffers[moveCount];
+        int moveTotal;
+        if (defenderThreats == 1) {
+            moves[0] = threatCells[0];
+            moveTotal = 1;
+        } else {
+            moveTotal = board.generateMoves(moves);
+        }
+
+        for (int i = 0; i < moveTotal && !searchAborted; i++) {
+            int cell = moves[i];
+            int plies = 0;
+
+            //the line counters tell a move which makes no threat without playing it
+            if (!board.isThreatMove(cell, attacker)) {
+                continue;
+            }
+
+            board.playMove(cell, attacker);
+
+            //a move which lets the defender win on the spot loses the sequence
+            int threats = board.getThreatCells(attacker, threatCells);
+            if (threats > 0 && board.getThreatCount(defender) == 0) {
+                if (threats > 1) {
+                    plies = 3;
+                } else {
+                    int block = threatCells[0];
+                    board.playMove(block, defender);
+                    int rest = findSequence(attacker, defender, depth + 2);
+                    board.undoMove(block);
+
+                    plies = rest > 0 ? rest + 2 : 0;
+                }
+            }
+
+            board.undoMove(cell);
+
+            if (plies > 0) {
+                if (depth == 0) {
+                    winningMove = cell;
+                }
+                return plies;
+            }
+        }
+
+        return 0;
+    }
+}
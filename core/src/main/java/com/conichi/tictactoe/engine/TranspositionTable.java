@@ -0,0 +1,144 @@
+package com.conichi.tictactoe.engine;
+
+public class TranspositionTable {
+
+    //the bound types of a stored value, depending on how the value relates to the alpha-beta window it was searched with
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    //decides what happens when a new position is stored into a slot which already holds a different position
+    public enum ReplacementPolicy {
+        //the new position always replaces the old one
+        ALWAYS,
+        //the new position replaces the old one only if it was searched at least as deep, so big subtrees are kept
+        DEPTH_PREFERRED
+    }
+
+    //the default number of entries, big enough to hold every position of the 3x3 game
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    //the entries are kept in parallel primitive arrays so probing and storing never allocate
+    private final long[] keys;
+    private final int[] values;
+    private final byte[] bounds;
+    private final short[] depths;
+    private final short[] moves;
+
+    private final int mask;
+    private final ReplacementPolicy replacementPolicy;
+
+    private long hits, misses, overwrites;
+
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    //the capacity is rounded up to the next power of two so the slot can be taken from the low bits of the key
+    public TranspositionTable(int capacity, ReplacementPolicy replacementPolicy) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid transposition table capacity: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        keys = new long[size];
+        values = new int[size];
+        bounds = new byte[size];
+        depths = new short[size];
+        moves = new short[size];
+        mask = size - 1;
+        this.replacementPolicy = replacementPolicy;
+    }
+
+    //get the slot of the given position, or -1 if the position is not stored
+    //an empty slot has the depth 0, since only positions with at least one move left get stored
+    public int probe(long key) {
+        int slot = getSlot(key);
+
+        if (depths[slot] != 0 && keys[slot] == key) {
+            hits++;
+            return slot;
+        }
+
+        misses++;
+        return -1;
+    }
+
+    public int getValue(int slot) {
+        return values[slot];
+    }
+
+    public int getBound(int slot) {
+        return bounds[slot];
+    }
+
+    public int getDepth(int slot) {
+        return depths[slot];
+    }
+
+    public int getMove(int slot) {
+        return moves[slot];
+    }
+
+    //store the searched value of the given position, the depth is the number of moves left under the position
+    //and the move is the best cell found for it, or -1 if no move was found
+    public void store(long key, int value, int bound, int depth, int move) {
+        int slot = getSlot(key);
+
+        if (depths[slot] != 0 && keys[slot] != key) {
+            if (replacementPolicy == ReplacementPolicy.DEPTH_PREFERRED && depth < depths[slot]) {
+                return;
+            }
+            overwrites++;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        bounds[slot] = (byte) bound;
+        depths[slot] = (short) depth;
+        moves[slot] = (short) move;
+    }
+
+    //spread the key bits before masking, since the low bits of neighbouring positions are often similar
+    private int getSlot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    //remove all stored positions, the counters are kept
+    public void clear() {
+        for (int i = 0; i < depths.length; i++) {
+            depths[i] = 0;
+        }
+    }
+
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    public ReplacementPolicy getReplacementPolicy() {
+        return replacementPolicy;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getOverwrites() {
+        return overwrites;
+    }
+
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        overwrites = 0;
+    }
+}
@@ -0,0 +1,635 @@
+package com.conichi.tictactoe.entity;
+
+import com.conichi.tictactoe.engine.Search;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class Board {
+
+    //representing the X, O, and Empty states of the board
+    public enum Value {
+        X, O, EMPTY
+    }
+
+    //the size and the win length of the classic game
+    public static final int DEFAULT_SIZE = 3;
+    public static final int DEFAULT_WIN_LENGTH = 3;
+
+    //the biggest supported size and win length, so every cell index and every score fits the search tables
+    public static final int MAX_SIZE = 128;
+    public static final int MAX_WIN_LENGTH = 6;
+
+    //the directions a line can go in from a cell, right, down, and both diagonals
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    //the seed of the Zobrist keys, it is fixed so the same position always gets the same hash
+    private static final long ZOBRIST_SEED = 0x7AC7AC70EL;
+
+    //the board has size x size cells, and a player needs winLength of them in a row, column or diagonal to win
+    private final int size;
+    private final int winLength;
+    private final int cellCount;
+
+    //the board is packed into two bit masks, one for the X's and one for the O's, split into 64 cell words
+    //every cell is a single bit indexed by x * size + y, so the first row takes the lowest bits
+    private final long[] xBits, oBits;
+
+    //the masks of all the cells of the board in every word
+    private final long[] fullBoard;
+
+    //the cells of every line a player can win with, which is every winLength cells in a row, column or diagonal
+    //and the indexes of all the lines going through every cell
+    private final int[][] lines;
+    private final int[][] cellLines;
+
+    //the score of a line with the given number of X's and no O's, or the other way around
+    private final int[] lineScores;
+
+    //the cell indexes every cell is moved to by each of the 8 symmetries of the board
+    //(identity, the three rotations, and the four reflections), and the reverse mapping of every symmetry
+    private final int[][] symmetries;
+    private final int[][] inverseSymmetries;
+
+    //random Zobrist keys of an X and an O on every cell, and the key of O being on move
+    private final long[][] zobristKeys;
+    private final long zobristOToMove;
+
+    //the Zobrist hash of the position seen through each of the 8 symmetries, updated on every move
+    //the smallest of them is the same for all symmetric positions, so it is used as the canonical hash
+    private long[] hashes = new long[8];
+
+    //the number of X's and O's on every line, and the number of lines full of X's and full of O's,
+    //they are updated for the lines through a cell whenever the cell is played or taken back
+    private final int[] lineXs, lineOs;
+    private int xFullLines, oFullLines;
+
+    //the lines every player needs only one more cell of to win, with no cell of the other player on them,
+    //kept as a set for X and one for O, with the number of lines in every set and the index of every line in its set,
+    //so the cells which win on the spot are found without looking at the other lines
+    private final int[][] threatLines;
+    private final int[][] threatIndexes;
+    private final int[] threatCounts;
+
+    //the heuristic score of the board, kept up to date with the line counters
+    private int score;
+
+    //the number of played cells
+    private int moveCount;
+
+    //the moves played with pushMove(), every move is its cell times 2, plus 1 if it is a move of O,
+    //the first historySize moves are on the board, and the moves after them up to historyEnd were taken back and can be redone
+    private final int[] history;
+    private int historySize, historyEnd;
+
+    //the search used by runAlphaBetaMinimax() and getBestMove(), it is created on the first search
+    private Search search;
+
+    public Board() {
+        this(DEFAULT_SIZE, DEFAULT_WIN_LENGTH);
+    }
+
+    public Board(int size, int winLength) {
+        if (size < 1 || size > MAX_SIZE || winLength < 1 || winLength > Math.min(size, MAX_WIN_LENGTH)) {
+            throw new IllegalArgumentException("Invalid board size " + size + " with win length " + winLength);
+        }
+
+        this.size = size;
+        this.winLength = winLength;
+        cellCount = size * size;
+
+        int words = (cellCount + 63) / 64;
+        xBits = new long[words];
+        oBits = new long[words];
+        fullBoard = new long[words];
+        for (int cell = 0; cell < cellCount; cell++) {
+            fullBoard[cell >> 6] |= 1L << cell;
+        }
+
+        lineScores = new int[winLength + 1];
+        for (int count = 1, score = 1; count <= winLength; count++, score *= 10) {
+            lineScores[count] = score;
+        }
+
+        ArrayList<int[]> boardLines = new ArrayList<>();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int[] direction : DIRECTIONS) {
+                    int endX = x + (winLength - 1) * direction[0], endY = y + (winLength - 1) * direction[1];
+
+                    if (endX < size && endY >= 0 && endY < size) {
+                        int[] line = new int[winLength];
+                        for (int i = 0; i < winLength; i++) {
+                            line[i] = (x + i * direction[0]) * size + y + i * direction[1];
+                        }
+                        boardLines.add(line);
+                    }
+                }
+            }
+        }
+        lines = boardLines.toArray(new int[boardLines.size()][]);
+
+        int[] cellLineCounts = new int[cellCount];
+        for (int[] line : lines) {
+            for (int cell : line) {
+                cellLineCounts[cell]++;
+            }
+        }
+        cellLines = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            cellLines[cell] = new int[cellLineCounts[cell]];
+            cellLineCounts[cell] = 0;
+        }
+        for (int line = 0; line < lines.length; line++) {
+            for (int cell : lines[line]) {
+                cellLines[cell][cellLineCounts[cell]++] = line;
+            }
+        }
+        lineXs = new int[lines.length];
+        lineOs = new int[lines.length];
+        threatLines = new int[2][lines.length];
+        threatIndexes = new int[2][lines.length];
+        threatCounts = new int[2];
+
+        symmetries = new int[8][cellCount];
+        inverseSymmetries = new int[8][cellCount];
+        int last = size - 1;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int[][] images = {
+                        {x, y}, {y, last - x}, {last - x, last - y}, {last - y, x},
+                        {x, last - y}, {last - x, y}, {y, x}, {last - y, last - x}};
+
+                for (int symmetry = 0; symmetry < 8; symmetry++) {
+                    int image = images[symmetry][0] * size + images[symmetry][1];
+                    symmetries[symmetry][x * size + y] = image;
+                    inverseSymmetries[symmetry][image] = x * size + y;
+                }
+            }
+        }
+
+        //every size and win length gets its own keys, so positions of different boards do not share hashes
+        Random random = new Random(ZOBRIST_SEED + size * 31 + winLength);
+        zobristKeys = new long[2][cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            zobristKeys[0][cell] = random.nextLong();
+            zobristKeys[1][cell] = random.nextLong();
+        }
+        zobristOToMove = random.nextLong();
+
+        history = new int[cellCount];
+
+        resetBoard();
+    }
+
+    //copy the position of the given board, the tables of the board which never change are shared with the copy,
+    //so a copy is cheap, and it can be changed and searched on another thread without touching the board
+    public Board(Board board) {
+        size = board.size;
+        winLength = board.winLength;
+        cellCount = board.cellCount;
+        fullBoard = board.fullBoard;
+        lines = board.lines;
+        cellLines = board.cellLines;
+        lineScores = board.lineScores;
+        symmetries = board.symmetries;
+        inverseSymmetries = board.inverseSymmetries;
+        zobristKeys = board.zobristKeys;
+        zobristOToMove = board.zobristOToMove;
+
+        xBits = board.xBits.clone();
+        oBits = board.oBits.clone();
+        hashes = board.hashes.clone();
+        lineXs = board.lineXs.clone();
+        lineOs = board.lineOs.clone();
+        xFullLines = board.xFullLines;
+        oFullLines = board.oFullLines;
+        threatLines = new int[][]{board.threatLines[0].clone(), board.threatLines[1].clone()};
+        threatIndexes = new int[][]{board.threatIndexes[0].clone(), board.threatIndexes[1].clone()};
+        threatCounts = board.threatCounts.clone();
+        score = board.score;
+        moveCount = board.moveCount;
+        history = board.history.clone();
+        historySize = board.historySize;
+        historyEnd = board.historyEnd;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    //get the number of played cells
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    //get the number of lines a player can win with through the given cell, the center of the board has the most of them
+    public int getLineCount(int cell) {
+        return cellLines[cell].length;
+    }
+
+    //get current board score, which is the sum of the scores of the X's and O's on every line a player can win with
+    //the score is updated on every move for the lines through the played cell, so it does not need to be counted here
+    public int getCurrentBoardScore() {
+        return score;
+    }
+
+    //get the number of lines the given player needs only one more cell of to win, they are counted on every move,
+    //so checking for a threat costs nothing when there is none
+    public int getThreatCount(Value player) {
+        return threatCounts[player == Value.O ? 1 : 0];
+    }
+
+    //get a cell which wins the game on the spot for the given player, or -1 if there is none
+    public int getThreatCell(Value player) {
+        int piece = player == Value.O ? 1 : 0;
+
+        return threatCounts[piece] > 0 ? getEmptyCell(threatLines[piece][0]) : -1;
+    }
+
+    //put the cells which win the game on the spot for the given player into the buffer, each of them once,
+    //and return their count, at most cells.length of them are put, so a buffer of 2 tells a single threat from a double one,
+    //which cannot be blocked with a single move
+    public int getThreatCells(Value player, int[] cells) {
+        int piece = player == Value.O ? 1 : 0;
+        int count = 0;
+
+        for (int i = 0; i < threatCounts[piece] && count < cells.length; i++) {
+            int cell = getEmptyCell(threatLines[piece][i]);
+
+            boolean found = false;
+            for (int j = 0; j < count && !found; j++) {
+                found = cells[j] == cell;
+            }
+            if (!found) {
+                cells[count++] = cell;
+            }
+        }
+
+        return count;
+    }
+
+    //check if playing the given empty cell makes a threat for the given player, which it does if the cell is on a line
+    //with all the other cells but one of the player's, and none of the other player's, it only looks at the line counters
+    public boolean isThreatMove(int cell, Value player) {
+        int[] own = player == Value.O ? lineOs : lineXs;
+        int[] other = player == Value.O ? lineXs : lineOs;
+
+        for (int line : cellLines[cell]) {
+            if (own[line] == winLength - 2 && other[line] == 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //get the empty cell of the given line, a threat line always has exactly one
+    private int getEmptyCell(int line) {
+        for (int cell : lines[line]) {
+            if (!isSet(xBits, cell) && !isSet(oBits, cell)) {
+                return cell;
+            }
+        }
+
+        return -1;
+    }
+
+    //get the score of the current board by inspecting the relation of X's and O's
+    //this is the heuristic function used to enable the Minimax algorithm to find the best move
+    //a full line scores 10 to the power of winLength - 1, and every missing cell of a line not blocked by the other player
+    //scores ten times less, so on the 3x3 board a line scores 100, 10 or 1
+    private int getCurrentScore(int X, int O){
+        int currentScore;
+
+        if (X == winLength || (X > 0 && O == 0)) {
+            currentScore = lineScores[X];
+        } else if (O == winLength || (O > 0 && X == 0)) {
+            currentScore = -lineScores[O];
+        } else {
+            currentScore = 0;
+        }
+
+        return currentScore;
+    }
+
+    //get the list of all possible points to play
+    //the search does not use it, it generates the empty cells into its own buffers so it does not allocate on every node
+    public ArrayList<Point> getPossiblePoints() {
+        ArrayList<Point> possiblePoints = new ArrayList<>();
+
+        for (int word = 0; word < xBits.length; word++) {
+            for (long empty = getEmptyCells(word); empty != 0; empty &= empty - 1) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(empty);
+                possiblePoints.add(new Point(cell / size, cell % size));
+            }
+        }
+
+        return possiblePoints;
+    }
+
+    //get the mask of all cells of the given word which are not played yet
+    private long getEmptyCells(int word) {
+        return ~(xBits[word] | oBits[word]) & fullBoard[word];
+    }
+
+    //put the indexes of all empty cells into the given buffer in row by row order, and return their count
+    //the cell index of a point is x * size + y
+    public int generateMoves(int[] moves) {
+        int count = 0;
+
+        for (int word = 0; word < xBits.length; word++) {
+            for (long empty = getEmptyCells(word); empty != 0; empty &= empty - 1) {
+                moves[count++] = (word << 6) + Long.numberOfTrailingZeros(empty);
+            }
+        }
+
+        return count;
+    }
+
+    private static boolean isSet(long[] bits, int cell) {
+        return (bits[cell >> 6] & (1L << cell)) != 0;
+    }
+
+    //check if the game is over
+    public boolean isGameOver() {
+        return (isXWinner() || isOWinner() || isGameDrawn());
+    }
+
+    //check if player X has a winning play
+    public boolean isXWinner() {
+        return xFullLines > 0;
+    }
+
+    //check if player O has a winning play
+    public boolean isOWinner() {
+        return oFullLines > 0;
+    }
+
+    //check if there any available plays, if not, the game is drawn
+    public boolean isGameDrawn() {
+        return moveCount == cellCount;
+    }
+
+    //get the value of the cell at the given coordinates
+    public Value getValue(int x, int y) {
+        int cell = x * size + y;
+
+        if (isSet(xBits, cell)) {
+            return Value.X;
+        } else if (isSet(oBits, cell)) {
+            return Value.O;
+        }
+
+        return Value.EMPTY;
+    }
+
+    //sets the given value to the given board
+    public void playMove(Point point, Value value) {
+        playMove(point.x * size + point.y, value);
+    }
+
+    //take back the move played on the given point, the cell becomes empty again
+    public void undoMove(Point point) {
+        undoMove(point.x * size + point.y);
+    }
+
+    //sets the given value to the cell with the given index, the old value of the cell gets removed first
+    public void playMove(int cell, Value value) {
+        undoMove(cell);
+
+        if (value == Value.X) {
+            xBits[cell >> 6] |= 1L << cell;
+            updateHashes(0, cell);
+            updateLines(cell, 1, 0);
+            moveCount++;
+        } else if (value == Value.O) {
+            oBits[cell >> 6] |= 1L << cell;
+            updateHashes(1, cell);
+            updateLines(cell, 0, 1);
+            moveCount++;
+        }
+    }
+
+    //remove the value of the cell with the given index, by removing the key of the value from the symmetry hashes
+    //and the X or O from the counters of all lines through the cell
+    public void undoMove(int cell) {
+        int word = cell >> 6;
+        long bit = 1L << cell;
+
+        if ((xBits[word] & bit) != 0) {
+            xBits[word] &= ~bit;
+            updateHashes(0, cell);
+            updateLines(cell, -1, 0);
+            moveCount--;
+        } else if ((oBits[word] & bit) != 0) {
+            oBits[word] &= ~bit;
+            updateHashes(1, cell);
+            updateLines(cell, 0, -1);
+            moveCount--;
+        }
+    }
+
+    //play the given value on the given empty cell and add the move to the history, so it can be taken back with undoMove()
+    //the moves which were taken back cannot be redone anymore
+    //the history only holds the moves played with pushMove(), the moves played with playMove() have to be taken back
+    //before the next undoMove() or redoMove(), which the search always does
+    public void pushMove(int cell, Value value) {
+        if (value == Value.EMPTY || getValue(cell / size, cell % size) != Value.EMPTY) {
+            throw new IllegalArgumentException("Cannot push " + value + " to cell " + cell);
+        }
+
+        playMove(cell, value);
+        history[historySize++] = cell * 2 + (value == Value.O ? 1 : 0);
+        historyEnd = historySize;
+    }
+
+    public void pushMove(Point point, Value value) {
+        pushMove(point.x * size + point.y, value);
+    }
+
+    //take back the last move of the history, and get its cell, or -1 if there is no move to take back
+    public int undoMove() {
+        if (historySize == 0) {
+            return -1;
+        }
+
+        int cell = history[--historySize] / 2;
+        undoMove(cell);
+        return cell;
+    }
+
+    //play the last move which was taken back again, and get its cell, or -1 if there is no move to redo
+    public int redoMove() {
+        if (historySize == historyEnd) {
+            return -1;
+        }
+
+        int move = history[historySize++];
+        playMove(move / 2, move % 2 == 0 ? Value.X : Value.O);
+        return move / 2;
+    }
+
+    public boolean canUndo() {
+        return historySize > 0;
+    }
+
+    public boolean canRedo() {
+        return historySize < historyEnd;
+    }
+
+    //get the number of moves in the history, including the moves which were taken back and can be redone
+    public int getHistoryLength() {
+        return historyEnd;
+    }
+
+    //get the number of moves of the history which are on the board
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    //get the cell of the given move of the history
+    public int getHistoryCell(int index) {
+        return history[index] / 2;
+    }
+
+    //add the given change of X's and O's to every line through the given cell, replacing the old score of the line
+    //with the new one, and counting the lines which get full or stop being full
+    private void updateLines(int cell, int xChange, int oChange) {
+        for (int line : cellLines[cell]) {
+            int X = lineXs[line], O = lineOs[line];
+            score -= getCurrentScore(X, O);
+
+            if (X == winLength) {
+                xFullLines--;
+            } else if (O == winLength) {
+                oFullLines--;
+            }
+
+            boolean xThreat = X == winLength - 1 && O == 0, oThreat = O == winLength - 1 && X == 0;
+
+            X += xChange;
+            O += oChange;
+            lineXs[line] = X;
+            lineOs[line] = O;
+            score += getCurrentScore(X, O);
+
+            updateThreat(0, line, xThreat, X == winLength - 1 && O == 0);
+            updateThreat(1, line, oThreat, O == winLength - 1 && X == 0);
+
+            if (X == winLength) {
+                xFullLines++;
+            } else if (O == winLength) {
+                oFullLines++;
+            }
+        }
+    }
+
+    //add the line to the threat lines of the piece, or remove it, if it became a threat or stopped being one
+    private void updateThreat(int piece, int line, boolean wasThreat, boolean isThreat) {
+        if (isThreat && !wasThreat) {
+            threatIndexes[piece][line] = threatCounts[piece];
+            threatLines[piece][threatCounts[piece]++] = line;
+        } else if (wasThreat && !isThreat) {
+            //move the last line of the set into the place of the removed one
+            int last = threatLines[piece][--threatCounts[piece]];
+            threatLines[piece][threatIndexes[piece][line]] = last;
+            threatIndexes[piece][last] = threatIndexes[piece][line];
+        }
+    }
+
+    //toggle the key of the given piece on the given cell in the hash of every symmetry
+    private void updateHashes(int piece, int cell) {
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            hashes[symmetry] ^= zobristKeys[piece][symmetries[symmetry][cell]];
+        }
+    }
+
+    //get the symmetry which has the smallest hash, the position seen through it is the canonical one
+    public int getCanonicalSymmetry() {
+        int canonicalSymmetry = 0;
+
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            if (hashes[symmetry] < hashes[canonicalSymmetry]) {
+                canonicalSymmetry = symmetry;
+            }
+        }
+
+        return canonicalSymmetry;
+    }
+
+    //get the hash of the position seen through the given symmetry, with the given player on move
+    //the hash seen through the canonical symmetry is the same for all symmetric positions
+    public long getHash(int symmetry, Value player) {
+        return player == Value.O ? hashes[symmetry] ^ zobristOToMove : hashes[symmetry];
+    }
+
+    //get the index the given cell has in the position seen through the given symmetry
+    public int getSymmetricCell(int symmetry, int cell) {
+        return symmetries[symmetry][cell];
+    }
+
+    //get the index a cell of the position seen through the given symmetry has in this position
+    public int getOriginalCell(int symmetry, int symmetricCell) {
+        return inverseSymmetries[symmetry][symmetricCell];
+    }
+
+    //score all the possible points of the given player with the Alpha-Beta pruning Minimax algorithm of the board's search,
+    //which keeps the scores so getBestMove() can pick the best one afterwards, see Search.runAlphaBetaMinimax()
+    //the engine.Searcher finds the best move without keeping any state in the board, and it is safe to use from many threads
+    public int runAlphaBetaMinimax(int alpha, int beta, int depth, Value player) {
+        return getSearch().runAlphaBetaMinimax(alpha, beta, depth, player);
+    }
+
+    //get the best move of the given player from the scores of the last runAlphaBetaMinimax()
+    public Point getBestMove(Value player) {
+        return getSearch().getBestMove(player);
+    }
+
+    private Search getSearch() {
+        if (search == null) {
+            search = new Search(this);
+        }
+
+        return search;
+    }
+
+    //reset the values of all cells to the empty state
+    public void resetBoard() {
+        for (int word = 0; word < xBits.length; word++) {
+            xBits[word] = 0;
+            oBits[word] = 0;
+        }
+
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            hashes[symmetry] = 0;
+        }
+
+        threatCounts[0] = 0;
+        threatCounts[1] = 0;
+        for (int line = 0; line < lines.length; line++) {
+            lineXs[line] = 0;
+            lineOs[line] = 0;
+
+            //with a win length of 1 every empty line is a threat
+            updateThreat(0, line, false, winLength == 1);
+            updateThreat(1, line, false, winLength == 1);
+        }
+
+        xFullLines = 0;
+        oFullLines = 0;
+        score = 0;
+        moveCount = 0;
+        historySize = 0;
+        historyEnd = 0;
+    }
+
+}
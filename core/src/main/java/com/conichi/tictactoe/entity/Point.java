@@ -10,12 +10,30 @@ public class Point {
         this.y = y;
     }
 
+    public Point(int x, int y, int score) {
+        this.x = x;
+        this.y = y;
+        this.score = score;
+    }
+
     public Point(Point point, int score) {
         this.x = point.x;
         this.y = point.y;
         this.score = score;
     }
 
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
     public boolean equals(Point point) {
         if (this.x == point.x && this.y == point.y) {
             return true;
@@ -0,0 +1,133 @@
+package com.conichi.tictactoe.entity;
+
+import java.nio.ByteBuffer;
+
+public class PositionCodec {
+
+    //every cell is a base 3 digit, 0 for an empty cell, 1 for X and 2 for O, and the first cell is the lowest digit,
+    //the same digits the opening book indexes its positions with
+    private static final int EMPTY_DIGIT = 0;
+    private static final int X_DIGIT = 1;
+    private static final int O_DIGIT = 2;
+
+    //the biggest number of cells whose base 3 index fits a long, 3^39 is below 2^63
+    public static final int MAX_INDEX_CELLS = 39;
+
+    private PositionCodec() {
+    }
+
+    //get the base 3 index of the position, 3x3 positions get an index below 3^9 = 19683, so it fits 15 bits
+    public static long encode(Board board) {
+        int cellCount = board.getCellCount();
+        if (cellCount > MAX_INDEX_CELLS) {
+            throw new IllegalArgumentException("A " + board.getSize() + "x" + board.getSize()
+                    + " position does not fit a long, it needs to be packed");
+        }
+
+        long index = 0;
+        for (int cell = cellCount - 1; cell >= 0; cell--) {
+            index = index * 3 + getDigit(board, cell);
+        }
+
+        return index;
+    }
+
+    //get the position of the given base 3 index on a new board of the given size and win length
+    public static Board decode(long index, int size, int winLength) {
+        Board board = new Board(size, winLength);
+        int cellCount = board.getCellCount();
+        if (cellCount > MAX_INDEX_CELLS) {
+            throw new IllegalArgumentException("A " + size + "x" + size + " position does not fit a long");
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("Invalid index " + index);
+        }
+
+        long rest = index;
+        for (int cell = 0; cell < cellCount; cell++) {
+            setDigit(board, cell, (int) (rest % 3));
+            rest /= 3;
+        }
+
+        if (rest != 0) {
+            throw new IllegalArgumentException("Invalid index " + index + " of a " + size + "x" + size + " position");
+        }
+
+        return board;
+    }
+
+    //get the base 3 index of the position with the player on move in the lowest bit, 0 for X and 1 for O,
+    //so a whole game state fits a single long, a 3x3 state even fits 16 bits
+    public static long encode(Board board, Board.Value player) {
+        return encode(board) << 1 | (player == Board.Value.O ? 1 : 0);
+    }
+
+    //get the position of a state encoded with the player on move, on a new board of the given size and win length
+    public static Board decodePosition(long state, int size, int winLength) {
+        return decode(state >>> 1, size, winLength);
+    }
+
+    //get the player on move of a state encoded with the player on move
+    public static Board.Value decodePlayer(long state) {
+        return (state & 1) == 0 ? Board.Value.X : Board.Value.O;
+    }
+
+    //get the number of bytes a packed position of the given number of cells takes, 2 bits per cell,
+    //so a 3x3 position takes 18 bits in 3 bytes, and a 15x15 position 57 bytes
+    public static int getPackedLength(int cellCount) {
+        return (cellCount + 3) / 4;
+    }
+
+    //write the position to the buffer with the digit of every cell in 2 bits, 4 cells to a byte,
+    //and the first cell in the lowest bits, it works for any size and the buffer position is moved past the position
+    public static void pack(Board board, ByteBuffer buffer) {
+        int cellCount = board.getCellCount();
+
+        for (int cell = 0; cell < cellCount; cell += 4) {
+            int packed = 0;
+            for (int i = 0; i < 4 && cell + i < cellCount; i++) {
+                packed |= getDigit(board, cell + i) << (i * 2);
+            }
+            buffer.put((byte) packed);
+        }
+    }
+
+    //read a position packed by pack() from the buffer onto a new board of the given size and win length
+    public static Board unpack(ByteBuffer buffer, int size, int winLength) {
+        Board board = new Board(size, winLength);
+        int cellCount = board.getCellCount();
+
+        for (int cell = 0; cell < cellCount; cell += 4) {
+            int packed = buffer.get();
+            for (int i = 0; i < 4 && cell + i < cellCount; i++) {
+                int digit = (packed >> (i * 2)) & 3;
+                if (digit > O_DIGIT) {
+                    throw new IllegalArgumentException("Invalid packed cell " + (cell + i));
+                }
+                setDigit(board, cell + i, digit);
+            }
+        }
+
+        return board;
+    }
+
+    private static int getDigit(Board board, int cell) {
+        Board.Value value = board.getValue(cell / board.getSize(), cell % board.getSize());
+
+        if (value == Board.Value.X) {
+            return X_DIGIT;
+        } else if (value == Board.Value.O) {
+            return O_DIGIT;
+        }
+
+        return EMPTY_DIGIT;
+    }
+
+    private static void setDigit(Board board, int cell, int digit) {
+        if (digit == X_DIGIT) {
+            board.playMove(cell, Board.Value.X);
+        } else if (digit == O_DIGIT) {
+            board.playMove(cell, Board.Value.O);
+        }
+    }
+}
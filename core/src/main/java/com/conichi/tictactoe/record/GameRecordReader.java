@@ -0,0 +1,175 @@
+package com.conichi.tictactoe.record;
+
+import com.conichi.tictactoe.entity.Board;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class GameRecordReader implements Closeable {
+
+    //the buffer of a streaming reader, it holds at least one record of the biggest size
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    //the part of the file a memory mapped reader maps at a time, so files of any size can be read
+    private static final int MAP_WINDOW = 1 << 28;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final boolean mapped;
+
+    //the buffer holds the part of the file from bufferStart, and the next record starts at position of the buffer
+    private ByteBuffer buffer;
+    private long bufferStart;
+    private int position;
+
+    //the current record, its cells start at movesStart of the buffer
+    private int size, winLength, result, moveCount, cellLength, movesStart;
+
+    private GameRecordReader(File file, boolean mapped) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.mapped = mapped;
+        channel = this.file.getChannel();
+
+        try {
+            if (!mapped) {
+                buffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+                buffer.flip();
+            } else {
+                buffer = ByteBuffer.allocate(0);
+            }
+
+            if (!fill(GameRecordWriter.HEADER_LENGTH) || buffer.getInt(0) != GameRecordWriter.MAGIC
+                    || buffer.getInt(4) != GameRecordWriter.VERSION) {
+                throw new IOException("Not a game record file of version " + GameRecordWriter.VERSION + ": " + file);
+            }
+            position = GameRecordWriter.HEADER_LENGTH;
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    //read the records by streaming the file through a buffer
+    public static GameRecordReader open(File file) throws IOException {
+        return new GameRecordReader(file, false);
+    }
+
+    //read the records by memory mapping the file, which is the fastest way for bulk reads of big files
+    public static GameRecordReader map(File file) throws IOException {
+        return new GameRecordReader(file, true);
+    }
+
+    //move to the next record, false if there are no more records
+    //the cursor only reads the record in place, so reading millions of records does not create any objects
+    public boolean next() throws IOException {
+        if (!fill(4)) {
+            if (buffer.limit() > position) {
+                throw new EOFException("Truncated record at " + (bufferStart + position));
+            }
+            return false;
+        }
+
+        int length = buffer.getInt(position);
+        if (length < GameRecordWriter.RECORD_HEADER_LENGTH - 4 || length > GameRecordWriter.MAX_RECORD_LENGTH - 4) {
+            throw new IOException("Invalid record length " + length + " at " + (bufferStart + position));
+        }
+        if (!fill(4 + length)) {
+            throw new EOFException("Truncated record at " + (bufferStart + position));
+        }
+
+        size = buffer.get(position + 4) & 0xFF;
+        winLength = buffer.get(position + 5) & 0xFF;
+        result = buffer.get(position + 6);
+        cellLength = GameRecordWriter.getCellLength(size * size);
+        moveCount = (length + 4 - GameRecordWriter.RECORD_HEADER_LENGTH) / cellLength;
+        movesStart = position + GameRecordWriter.RECORD_HEADER_LENGTH;
+        position += 4 + length;
+
+        return true;
+    }
+
+    //make sure the buffer holds the given number of bytes from the position, false if the file ends before them
+    private boolean fill(int length) throws IOException {
+        if (buffer.limit() - position >= length) {
+            return true;
+        }
+
+        bufferStart += position;
+
+        if (mapped) {
+            long mapLength = Math.min(channel.size() - bufferStart, MAP_WINDOW);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, bufferStart, mapLength);
+        } else {
+            buffer.position(position);
+            buffer.compact();
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+        }
+        position = 0;
+
+        return buffer.limit() >= length;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getWinLength() {
+        return winLength;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    //get the cell of the given move of the game, the even moves are the moves of X
+    public int getMove(int index) {
+        if (index < 0 || index >= moveCount) {
+            throw new IndexOutOfBoundsException("Move " + index + " of a game with " + moveCount + " moves");
+        }
+
+        if (cellLength == 1) {
+            return buffer.get(movesStart + index) & 0xFF;
+        }
+        return buffer.getShort(movesStart + index * 2) & 0xFFFF;
+    }
+
+    //get the winner of the game, EMPTY if the game was drawn or not finished
+    public Board.Value getWinner() {
+        if (result == GameRecordWriter.RESULT_X_WON) {
+            return Board.Value.X;
+        } else if (result == GameRecordWriter.RESULT_O_WON) {
+            return Board.Value.O;
+        }
+
+        return Board.Value.EMPTY;
+    }
+
+    public boolean isFinished() {
+        return result != GameRecordWriter.RESULT_UNFINISHED;
+    }
+
+    //play the first moveCount moves of the game on the given empty board, which has the size and win length of the game
+    public void replay(Board board, int moveCount) {
+        if (board.getSize() != size || board.getWinLength() != winLength || board.getMoveCount() != 0) {
+            throw new IllegalArgumentException("The game needs an empty " + size + "x" + size + " board");
+        }
+
+        for (int i = 0; i < moveCount; i++) {
+            board.playMove(getMove(i), i % 2 == 0 ? Board.Value.X : Board.Value.O);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.conichi.tictactoe.record;
+
+import com.conichi.tictactoe.entity.Board;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class GameRecordWriter implements Closeable {
+
+    //the header of the record file, followed by the records, which are only ever appended
+    static final int MAGIC = 0x54544752;
+    static final int VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+
+    //every record is the length of the rest of the record, the size, the win length and the result of the game,
+    //followed by the played cells in the order they were played, X playing first,
+    //a cell takes a byte on boards up to 16x16 and two bytes on the bigger ones
+    static final int RECORD_HEADER_LENGTH = 4 + 3;
+    static final int MAX_RECORD_LENGTH = RECORD_HEADER_LENGTH + Board.MAX_SIZE * Board.MAX_SIZE * 2;
+
+    //the results of a game, as the third byte of its record
+    static final int RESULT_UNFINISHED = 0;
+    static final int RESULT_X_WON = 1;
+    static final int RESULT_O_WON = 2;
+    static final int RESULT_DRAWN = 3;
+
+    //the records are collected in the buffer and written in big chunks, so appending a game does not need a system call
+    private static final int BUFFER_CAPACITY = 1 << 16;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+
+    //open the record file for appending, it is created if it does not exist
+    //if the writing of the last records was cut off, the part of a record at the end is cut off the file,
+    //since the records appended after it could not be read
+    public GameRecordWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        channel = this.file.getChannel();
+
+        try {
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).putInt(VERSION);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                int read = 0;
+                while (header.hasRemaining() && read >= 0) {
+                    read = channel.read(header, header.position());
+                }
+
+                if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("Not a game record file of version " + VERSION + ": " + file);
+                }
+            }
+
+            long end = channel.size() == 0 ? 0 : findEnd();
+            if (end < channel.size()) {
+                channel.truncate(end);
+            }
+            channel.position(end);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    //get the end of the last complete record of the file, the records are skipped by their lengths,
+    //which are read into the buffer a chunk of the file at a time, a record which does not fit in the rest of the file
+    //or has a length no record can have is where the file ends
+    private long findEnd() throws IOException {
+        long size = channel.size();
+        long end = HEADER_LENGTH;
+        long chunkStart = end;
+        buffer.limit(0);
+
+        while (size - end >= 4) {
+            if (end + 4 > chunkStart + buffer.limit()) {
+                chunkStart = end;
+                buffer.clear();
+                int read = 0;
+                while (buffer.hasRemaining() && read >= 0) {
+                    read = channel.read(buffer, chunkStart + buffer.position());
+                }
+                buffer.flip();
+            }
+
+            int length = buffer.getInt((int) (end - chunkStart));
+            if (length < RECORD_HEADER_LENGTH - 4 || length > MAX_RECORD_LENGTH - 4 || length > size - end - 4) {
+                break;
+            }
+            end += 4 + length;
+        }
+
+        buffer.clear();
+        return end;
+    }
+
+    //get the number of bytes a cell takes in the records of boards with the given number of cells
+    static int getCellLength(int cellCount) {
+        return cellCount <= 256 ? 1 : 2;
+    }
+
+    //append the game which reached the given position with the first moveCount cells of moves,
+    //the size, the win length and the result of the game are taken from the position
+    //the record is only in the buffer until the buffer is full or the writer is flushed or closed
+    public void append(Board board, int[] moves, int moveCount) throws IOException {
+        if (moveCount != board.getMoveCount()) {
+            throw new IllegalArgumentException("The position has " + board.getMoveCount() + " moves, but the game has "
+                    + moveCount);
+        }
+
+        int cellLength = getCellLength(board.getCellCount());
+        int length = RECORD_HEADER_LENGTH + moveCount * cellLength;
+        if (buffer.remaining() < length) {
+            flush();
+        }
+
+        buffer.putInt(length - 4);
+        buffer.put((byte) board.getSize());
+        buffer.put((byte) board.getWinLength());
+        buffer.put((byte) getResult(board));
+
+        for (int i = 0; i < moveCount; i++) {
+            if (cellLength == 1) {
+                buffer.put((byte) moves[i]);
+            } else {
+                buffer.putShort((short) moves[i]);
+            }
+        }
+    }
+
+    private static int getResult(Board board) {
+        if (board.isXWinner()) {
+            return RESULT_X_WON;
+        } else if (board.isOWinner()) {
+            return RESULT_O_WON;
+        } else if (board.isGameDrawn()) {
+            return RESULT_DRAWN;
+        }
+
+        return RESULT_UNFINISHED;
+    }
+
+    //write the buffered records to the file
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class EvaluationCacheTest {
+
+    private static final long ENGINE_KEY = 1;
+
+    //an unsolved move only stands in for a search whose limits are all within the limits it was searched with
+    @Test
+    public void reusesMovesOnlyWithinTheirLimits() throws IOException {
+        File file = createTempFile();
+        EvaluationCache cache = new EvaluationCache(file, 1024);
+        try {
+            Board board = createPosition(5, 12);
+            cache.put(board, Board.Value.O, ENGINE_KEY, new SearchLimits.Builder().maxDepth(4).timeLimit(200).build(),
+                    new Point(1, 1), 7, 4, false);
+
+            assertNotNull(cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(4).timeLimit(200).build()));
+            assertNotNull(cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(2).timeLimit(100).build()));
+
+            assertNull("A deeper search took the move", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(5).timeLimit(200).build()));
+            assertNull("A longer search took the move", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(4).timeLimit(300).build()));
+            assertNull("A search without a time limit took the move", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(4).build()));
+            assertNull("A search without any limit took the move", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    SearchLimits.NONE));
+            //the move was searched without a node limit, so a search with one cannot find a better move
+            assertNotNull(cache.get(board, Board.Value.O, ENGINE_KEY,
+                    new SearchLimits.Builder().maxDepth(4).timeLimit(200).nodeLimit(1000).build()));
+
+            cache.put(board, Board.Value.O, ENGINE_KEY, new SearchLimits.Builder().nodeLimit(1000).build(),
+                    new Point(1, 1), 7, 4, false);
+            assertNull("A search with a time limit took the move of a node limit", cache.get(board, Board.Value.O,
+                    ENGINE_KEY, new SearchLimits.Builder().timeLimit(200).build()));
+
+            assertEquals(3, cache.getHits());
+            assertEquals(5, cache.getMisses());
+        } finally {
+            cache.close();
+            file.delete();
+        }
+    }
+
+    //a move searched to the end stands in for any search, and a move searched with limits does not replace it
+    @Test
+    public void reusesSolvedMovesForAnySearch() throws IOException {
+        File file = createTempFile();
+        EvaluationCache cache = new EvaluationCache(file, 1024);
+        try {
+            Board board = createPosition(3, 0);
+            cache.put(board, Board.Value.O, ENGINE_KEY, new SearchLimits.Builder().maxDepth(1).build(),
+                    new Point(1, 1), 0, 8, true);
+            cache.put(board, Board.Value.O, ENGINE_KEY, new SearchLimits.Builder().maxDepth(2).build(),
+                    new Point(0, 1), 50, 2, false);
+
+            SearchResult result = cache.get(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE);
+            assertNotNull(result);
+            assertEquals(0, result.getScore());
+            assertEquals(8, result.getDepth());
+        } finally {
+            cache.close();
+            file.delete();
+        }
+    }
+
+    //the moves are apart for every engine key, player and board, and a symmetric position gets the symmetric move
+    @Test
+    public void keepsTheMovesOfEveryKeyApart() throws IOException {
+        File file = createTempFile();
+        EvaluationCache cache = new EvaluationCache(file, 1024);
+        try {
+            Board board = createPosition(3, 0);
+            cache.put(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(0, 1), 0, 8, true);
+
+            assertNull(cache.get(board, Board.Value.O, ENGINE_KEY + 1, SearchLimits.NONE));
+            assertNull(cache.get(board, Board.Value.X, ENGINE_KEY, SearchLimits.NONE));
+            assertNull(cache.get(createPosition(4, 0), Board.Value.O, ENGINE_KEY, SearchLimits.NONE));
+
+            //the corner 0 turned by a quarter is the corner 2, and the edge 1 next to it is the edge 5
+            SearchResult result = cache.get(createPosition(3, 2), Board.Value.O, ENGINE_KEY, SearchLimits.NONE);
+            assertNotNull(result);
+            assertEquals(1, result.getMove().getX());
+            assertEquals(2, result.getMove().getY());
+        } finally {
+            cache.close();
+            file.delete();
+        }
+    }
+
+    //a full bucket evicts a record which was not looked up since the clock hand last passed it
+    @Test
+    public void evictsRecordsWhichAreNotLookedUp() throws IOException {
+        File file = createTempFile();
+        //a single bucket of 4 records
+        EvaluationCache cache = new EvaluationCache(file, 4);
+        try {
+            //an X on the cells of a triangle of the 9x9 board, so no two of the positions are symmetric
+            Board[] boards = new Board[12];
+            for (int i = 0, x = 0; x <= 4; x++) {
+                for (int y = x; y <= 4 && i < boards.length; y++) {
+                    boards[i++] = createPosition(9, x * 9 + y);
+                }
+            }
+
+            for (int i = 0; i < 4; i++) {
+                cache.put(boards[i], Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(8, 8), i, 1, true);
+            }
+            assertNotNull(cache.get(boards[0], Board.Value.O, ENGINE_KEY, SearchLimits.NONE));
+
+            //the first record is looked up after every store, so it is never evicted, the others make room in turn,
+            //once the hand has cleared their flags
+            for (int i = 4; i < boards.length; i++) {
+                cache.put(boards[i], Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(8, 8), i, 1, true);
+                assertNotNull("The record which is looked up was evicted",
+                        cache.get(boards[0], Board.Value.O, ENGINE_KEY, SearchLimits.NONE));
+            }
+
+            for (int i = 1; i < boards.length; i++) {
+                SearchResult result = cache.get(boards[i], Board.Value.O, ENGINE_KEY, SearchLimits.NONE);
+                if (i < boards.length - 3) {
+                    assertNull("An old record was kept", result);
+                } else {
+                    assertNotNull("A new record was evicted", result);
+                }
+            }
+        } finally {
+            cache.close();
+            file.delete();
+        }
+    }
+
+    //the records are kept in the file, unless the file was written with another version or capacity
+    @Test
+    public void reopensOnlyFilesOfTheSameLayout() throws IOException {
+        File file = createTempFile();
+        try {
+            Board board = createPosition(3, 0);
+
+            EvaluationCache cache = new EvaluationCache(file, 1024);
+            cache.put(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(1, 1), 0, 8, true);
+            cache.close();
+
+            cache = new EvaluationCache(file, 1024);
+            assertNotNull("The record was not kept", cache.get(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE));
+            cache.close();
+
+            //the version is the second int of the header
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.seek(4);
+                randomAccessFile.writeInt(randomAccessFile.readInt() - 1);
+            } finally {
+                randomAccessFile.close();
+            }
+
+            cache = new EvaluationCache(file, 1024);
+            assertNull("A file of another version was read", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    SearchLimits.NONE));
+            cache.put(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(1, 1), 0, 8, true);
+            cache.close();
+
+            cache = new EvaluationCache(file, 1024);
+            assertNotNull("The cleared file was not written again", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    SearchLimits.NONE));
+            cache.close();
+
+            cache = new EvaluationCache(file, 2048);
+            assertNull("A file of another capacity was read", cache.get(board, Board.Value.O, ENGINE_KEY,
+                    SearchLimits.NONE));
+            cache.close();
+        } finally {
+            file.delete();
+        }
+    }
+
+    //a cache whose file cannot be opened stays empty
+    @Test
+    public void staysEmptyWithoutAFile() {
+        EvaluationCache cache = new EvaluationCache(new File(new File("missing-directory"), "cache.bin"), 1024);
+        Board board = createPosition(3, 0);
+
+        cache.put(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE, new Point(1, 1), 0, 8, true);
+        assertNull(cache.get(board, Board.Value.O, ENGINE_KEY, SearchLimits.NONE));
+        cache.close();
+    }
+
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("cache", ".bin");
+        file.delete();
+        return file;
+    }
+
+    //a board of the given size with an X on the given cell
+    private static Board createPosition(int size, int cell) {
+        Board board = new Board(size, Math.min(size, 4));
+        board.playMove(cell, Board.Value.X);
+        return board;
+    }
+}
@@ -0,0 +1,98 @@
+package com.conichi.tictactoe.engine;
+
+import com.conichi.tictactoe.entity.Board;
+import com.conichi.tictactoe.entity.Point;
+import com.conichi.tictactoe.entity.PositionCodec;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchTest {
+
+    //the 4x4 boards of the sample with their win length and depth limit, and the number of positions of each
+    private static final int[][] SAMPLED_BOARDS = {{4, 3, 6}, {4, 4, 7}};
+    private static final int SAMPLED_POSITIONS = 30;
+
+    //runNegamax() without the mate scores has to find the same value and best move as the reference runAlphaBetaMinimax()
+    //in every position of the 3x3 game which can be reached with X playing first
+    @Test
+    public void negamaxMatchesReferenceOnAllReachable3x3Positions() {
+        int positions = walk(new Board(), Board.Value.X, new HashSet<Long>());
+
+        //every position of the game which is not over yet, counted by the PositionCodec index
+        assertEquals(4520, positions);
+    }
+
+    //the same on a seeded sample of 4x4 positions, which are searched to a depth limit
+    @Test
+    public void negamaxMatchesReferenceOnSampled4x4Positions() {
+        Random random = new Random(5);
+
+        for (int[] sampledBoard : SAMPLED_BOARDS) {
+            for (int i = 0; i < SAMPLED_POSITIONS; i++) {
+                Board board = new Board(sampledBoard[0], sampledBoard[1]);
+                Board.Value player = Board.Value.X;
+
+                int moves = random.nextInt(board.getCellCount() / 2);
+                for (int j = 0; j < moves && !board.isGameOver(); j++) {
+                    List<Point> points = board.getPossiblePoints();
+                    board.playMove(points.get(random.nextInt(points.size())), player);
+                    player = getOpponent(player);
+                }
+
+                if (!board.isGameOver()) {
+                    assertSameResult(board, player, sampledBoard[2]);
+                }
+            }
+        }
+    }
+
+    //compare the searches in the given position and in every position reachable from it, and return how many were compared
+    private static int walk(Board board, Board.Value player, Set<Long> visited) {
+        if (board.isGameOver() || !visited.add(PositionCodec.encode(board))) {
+            return 0;
+        }
+
+        assertSameResult(board, player, 0);
+
+        int positions = 1;
+        for (Point point : board.getPossiblePoints()) {
+            board.playMove(point, player);
+            positions += walk(board, getOpponent(player), visited);
+            board.undoMove(point);
+        }
+
+        return positions;
+    }
+
+    private static void assertSameResult(Board board, Board.Value player, int maxDepth) {
+        Search reference = new Search(new Board(board));
+        Search negamax = new Search(new Board(board));
+        negamax.setMateScores(false);
+        if (maxDepth > 0) {
+            reference.setMaxDepth(maxDepth);
+            negamax.setMaxDepth(maxDepth);
+        }
+
+        //runNegamax() scores from the point of view of the player on move, runAlphaBetaMinimax() from the one of X
+        int referenceValue = reference.runAlphaBetaMinimax(Integer.MIN_VALUE, Integer.MAX_VALUE, 0, player);
+        int negamaxValue = negamax.runNegamax(-Search.INFINITY, Search.INFINITY, 0, player);
+        assertEquals(referenceValue, player == Board.Value.X ? negamaxValue : -negamaxValue);
+
+        Point referenceMove = reference.getBestMove(player);
+        Point negamaxMove = negamax.getBestMove(player);
+        assertTrue(referenceMove.equals(negamaxMove));
+        assertEquals(referenceMove.getScore(), negamaxMove.getScore());
+    }
+
+    private static Board.Value getOpponent(Board.Value player) {
+        return player == Board.Value.X ? Board.Value.O : Board.Value.X;
+    }
+}
@@ -0,0 +1,123 @@
+package com.conichi.tictactoe.entity;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class BoardTest {
+
+    //the sizes and win lengths of the boards the moves are pushed, taken back and redone on
+    private static final int[][] BOARDS = {{3, 3}, {4, 3}, {5, 4}, {7, 5}, {9, 5}};
+
+    private static final int GAMES = 200;
+    private static final int STEPS = 80;
+
+    //after every push, undo and redo, the incremental state of the board is the state of the same moves played
+    //on an empty board, so taking a move back leaves nothing of it behind
+    @Test
+    public void undoAndRedoKeepTheStateOfABoardBuiltFromScratch() {
+        Random random = new Random(19);
+
+        for (int[] size : BOARDS) {
+            for (int game = 0; game < GAMES; game++) {
+                Board board = new Board(size[0], size[1]);
+                int[] moves = new int[board.getCellCount()];
+
+                for (int step = 0; step < STEPS; step++) {
+                    int action = random.nextInt(3);
+
+                    if (action == 0 && board.getMoveCount() < board.getCellCount()) {
+                        int cell = moves[random.nextInt(board.generateMoves(moves))];
+                        board.pushMove(cell, board.getHistorySize() % 2 == 0 ? Board.Value.X : Board.Value.O);
+                        assertFalse("A pushed move left moves to redo", board.canRedo());
+                    } else if (action == 1) {
+                        assertEquals(board.canUndo(), board.undoMove() >= 0);
+                    } else {
+                        assertEquals(board.canRedo(), board.redoMove() >= 0);
+                    }
+
+                    assertEquals(board.getHistorySize(), board.getMoveCount());
+                    assertSameState(rebuild(board), board);
+                }
+            }
+        }
+    }
+
+    //a taken back move can be redone until another move is pushed
+    @Test
+    public void pushingAMoveDropsTheMovesToRedo() {
+        Board board = new Board();
+        board.pushMove(4, Board.Value.X);
+        board.pushMove(0, Board.Value.O);
+        board.pushMove(8, Board.Value.X);
+
+        assertEquals(8, board.undoMove());
+        assertEquals(0, board.undoMove());
+        assertEquals(3, board.getHistoryLength());
+        assertEquals(0, board.redoMove());
+
+        board.pushMove(2, Board.Value.X);
+        assertFalse(board.canRedo());
+        assertEquals(-1, board.redoMove());
+        assertEquals(3, board.getHistoryLength());
+        assertEquals(2, board.getHistoryCell(2));
+    }
+
+    //play the moves of the history which are on the board on an empty board of the same size
+    private static Board rebuild(Board board) {
+        Board rebuilt = new Board(board.getSize(), board.getWinLength());
+
+        for (int i = 0; i < board.getHistorySize(); i++) {
+            rebuilt.playMove(board.getHistoryCell(i), i % 2 == 0 ? Board.Value.X : Board.Value.O);
+        }
+
+        return rebuilt;
+    }
+
+    //compare everything the line counters, the score and the hashes show of the boards
+    private static void assertSameState(Board expected, Board actual) {
+        assertEquals(expected.getMoveCount(), actual.getMoveCount());
+        assertEquals(expected.getCurrentBoardScore(), actual.getCurrentBoardScore());
+        assertEquals(expected.isXWinner(), actual.isXWinner());
+        assertEquals(expected.isOWinner(), actual.isOWinner());
+        assertEquals(expected.isGameDrawn(), actual.isGameDrawn());
+        assertEquals(expected.getCanonicalSymmetry(), actual.getCanonicalSymmetry());
+
+        for (int symmetry = 0; symmetry < 8; symmetry++) {
+            assertEquals("Hash of symmetry " + symmetry, expected.getHash(symmetry, Board.Value.X),
+                    actual.getHash(symmetry, Board.Value.X));
+            assertEquals("Hash of symmetry " + symmetry, expected.getHash(symmetry, Board.Value.O),
+                    actual.getHash(symmetry, Board.Value.O));
+        }
+
+        int size = expected.getSize();
+        for (int cell = 0; cell < expected.getCellCount(); cell++) {
+            assertEquals("Cell " + cell, expected.getValue(cell / size, cell % size), actual.getValue(cell / size, cell % size));
+        }
+
+        for (Board.Value player : new Board.Value[]{Board.Value.X, Board.Value.O}) {
+            assertEquals("Threats of " + player, expected.getThreatCount(player), actual.getThreatCount(player));
+            assertArrayEquals("Threat cells of " + player, getThreatCells(expected, player), getThreatCells(actual, player));
+
+            //a threat move is found from the counters of the lines through the cell
+            for (int cell = 0; cell < expected.getCellCount(); cell++) {
+                if (expected.getValue(cell / size, cell % size) == Board.Value.EMPTY) {
+                    assertEquals("Threat move " + cell + " of " + player, expected.isThreatMove(cell, player),
+                            actual.isThreatMove(cell, player));
+                }
+            }
+        }
+    }
+
+    private static int[] getThreatCells(Board board, Board.Value player) {
+        int[] cells = new int[board.getCellCount()];
+        int[] threatCells = Arrays.copyOf(cells, board.getThreatCells(player, cells));
+        Arrays.sort(threatCells);
+        return threatCells;
+    }
+}
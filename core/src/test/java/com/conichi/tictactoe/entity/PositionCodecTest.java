@@ -0,0 +1,116 @@
+package com.conichi.tictactoe.entity;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class PositionCodecTest {
+
+    //the number of random positions of every size
+    private static final int POSITIONS = 100;
+
+    //every 3x3 index is a different position, and the position of an index gets the index back
+    @Test
+    public void decodesEvery3x3Index() {
+        for (long index = 0; index < 19683; index++) {
+            Board board = PositionCodec.decode(index, 3, 3);
+            assertEquals(index, PositionCodec.encode(board));
+        }
+
+        assertEquals(9, PositionCodec.decode(19682, 3, 3).getMoveCount());
+    }
+
+    @Test
+    public void rejectsIndexesOfOtherSizes() {
+        try {
+            PositionCodec.decode(19683, 3, 3);
+            fail("The index of a bigger board was decoded");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+
+        try {
+            PositionCodec.encode(new Board(7, 4));
+            fail("A 7x7 position does not fit a long");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void encodesThePlayerOnMove() {
+        Random random = new Random(3);
+
+        for (int i = 0; i < POSITIONS; i++) {
+            Board board = createRandomPosition(random, 4, 3);
+            Board.Value player = random.nextBoolean() ? Board.Value.X : Board.Value.O;
+            long state = PositionCodec.encode(board, player);
+
+            assertSamePosition(board, PositionCodec.decodePosition(state, 4, 3));
+            assertEquals(player, PositionCodec.decodePlayer(state));
+        }
+    }
+
+    //the biggest sizes whose positions fit a long and a few which do not, every size up to 6x6 is indexed too
+    @Test
+    public void packsAndIndexesPositionsOfEverySize() {
+        Random random = new Random(5);
+
+        for (int size = 1; size <= 20; size++) {
+            int winLength = Math.min(size, 3);
+
+            for (int i = 0; i < POSITIONS; i++) {
+                Board board = createRandomPosition(random, size, winLength);
+
+                ByteBuffer buffer = ByteBuffer.allocate(PositionCodec.getPackedLength(board.getCellCount()));
+                PositionCodec.pack(board, buffer);
+                assertFalse("The packed position has the wrong length", buffer.hasRemaining());
+                buffer.flip();
+                assertSamePosition(board, PositionCodec.unpack(buffer, size, winLength));
+
+                if (board.getCellCount() <= PositionCodec.MAX_INDEX_CELLS) {
+                    assertSamePosition(board, PositionCodec.decode(PositionCodec.encode(board), size, winLength));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectsInvalidPackedCells() {
+        try {
+            PositionCodec.unpack(ByteBuffer.wrap(new byte[]{(byte) 0xff, 0, 0}), 3, 3);
+            fail("A packed cell of 3 was unpacked");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    //a position with every cell chosen at random, which does not have to be reachable in a game
+    private static Board createRandomPosition(Random random, int size, int winLength) {
+        Board board = new Board(size, winLength);
+
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            int digit = random.nextInt(3);
+            if (digit == 1) {
+                board.playMove(cell, Board.Value.X);
+            } else if (digit == 2) {
+                board.playMove(cell, Board.Value.O);
+            }
+        }
+
+        return board;
+    }
+
+    private static void assertSamePosition(Board expected, Board actual) {
+        for (int x = 0; x < expected.getSize(); x++) {
+            for (int y = 0; y < expected.getSize(); y++) {
+                assertEquals("Cell " + x + "," + y, expected.getValue(x, y), actual.getValue(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.conichi.tictactoe.record;
+
+import com.conichi.tictactoe.entity.Board;
+
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameRecordTest {
+
+    //the sizes of the recorded games, the cells of the boards from 17x17 on take two bytes
+    private static final int[] SIZES = {3, 4, 9, 15, 16, 17, 19, 32};
+
+    private static final int GAMES = 2000;
+
+    @Test
+    public void readsBackTheStreamedGames() throws IOException {
+        File file = createTempFile();
+        try {
+            List<int[]> games = writeRandomGames(file, new Random(7));
+
+            assertGames(GameRecordReader.open(file), games);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void readsBackTheMappedGames() throws IOException {
+        File file = createTempFile();
+        try {
+            List<int[]> games = writeRandomGames(file, new Random(7));
+
+            assertGames(GameRecordReader.map(file), games);
+        } finally {
+            file.delete();
+        }
+    }
+
+    //a writer opened again appends after the games which are already in the file
+    @Test
+    public void appendsToAnExistingFile() throws IOException {
+        File file = createTempFile();
+        try {
+            List<int[]> games = writeRandomGames(file, new Random(7));
+            games.addAll(writeRandomGames(file, new Random(8)));
+
+            assertGames(GameRecordReader.open(file), games);
+        } finally {
+            file.delete();
+        }
+    }
+
+    //a record cut off by a crash during a flush is dropped when the file is opened for appending again,
+    //so the games appended later can still be read
+    @Test
+    public void dropsATornRecordBeforeAppending() throws IOException {
+        File file = createTempFile();
+        try {
+            List<int[]> games = writeRandomGames(file, new Random(7));
+            int[] last = games.remove(games.size() - 1);
+            cutOff(file, 3 + last.length);
+
+            GameRecordReader reader = GameRecordReader.open(file);
+            try {
+                while (reader.next()) {
+                    //skip to the torn record
+                }
+                fail("The torn record was read");
+            } catch (EOFException e) {
+                //expected
+            } finally {
+                reader.close();
+            }
+
+            games.addAll(writeRandomGames(file, new Random(8)));
+
+            assertGames(GameRecordReader.open(file), games);
+            assertGames(GameRecordReader.map(file), games);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void dropsATornLengthBeforeAppending() throws IOException {
+        File file = createTempFile();
+        try {
+            List<int[]> games = writeRandomGames(file, new Random(7));
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.seek(randomAccessFile.length());
+                randomAccessFile.writeShort(0);
+            } finally {
+                randomAccessFile.close();
+            }
+
+            games.addAll(writeRandomGames(file, new Random(8)));
+
+            assertGames(GameRecordReader.open(file), games);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        File file = createTempFile();
+        try {
+            RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                randomAccessFile.writeInt(GameRecordWriter.MAGIC);
+                randomAccessFile.writeInt(GameRecordWriter.VERSION + 1);
+            } finally {
+                randomAccessFile.close();
+            }
+
+            try {
+                new GameRecordWriter(file).close();
+                fail("A file of another version was opened for appending");
+            } catch (IOException e) {
+                //expected
+            }
+            try {
+                GameRecordReader.open(file).close();
+                fail("A file of another version was opened for reading");
+            } catch (IOException e) {
+                //expected
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static File createTempFile() throws IOException {
+        File file = File.createTempFile("games", ".ttgr");
+        file.delete();
+        return file;
+    }
+
+    //append random games of every size to the file, the first value of every game is its size,
+    //the second its win length, and the rest are its cells
+    private static List<int[]> writeRandomGames(File file, Random random) throws IOException {
+        List<int[]> games = new ArrayList<>();
+        GameRecordWriter writer = new GameRecordWriter(file);
+
+        try {
+            for (int i = 0; i < GAMES; i++) {
+                int size = SIZES[i % SIZES.length];
+                Board board = new Board(size, Math.min(size, 5));
+                int[] moves = new int[board.getCellCount()];
+                int[] empty = new int[board.getCellCount()];
+
+                int moveTotal = random.nextInt(Math.min(board.getCellCount(), 60) + 1);
+                int moveCount = 0;
+                while (moveCount < moveTotal && !board.isGameOver()) {
+                    int cell = empty[random.nextInt(board.generateMoves(empty))];
+                    board.playMove(cell, moveCount % 2 == 0 ? Board.Value.X : Board.Value.O);
+                    moves[moveCount++] = cell;
+                }
+
+                writer.append(board, moves, moveCount);
+
+                int[] game = new int[moveCount + 2];
+                game[0] = size;
+                game[1] = board.getWinLength();
+                System.arraycopy(moves, 0, game, 2, moveCount);
+                games.add(game);
+            }
+        } finally {
+            writer.close();
+        }
+
+        return games;
+    }
+
+    private static void assertGames(GameRecordReader reader, List<int[]> games) throws IOException {
+        try {
+            for (int[] game : games) {
+                assertTrue("A game is missing", reader.next());
+                assertEquals(game[0], reader.getSize());
+                assertEquals(game[1], reader.getWinLength());
+
+                int[] moves = new int[reader.getMoveCount()];
+                for (int i = 0; i < moves.length; i++) {
+                    moves[i] = reader.getMove(i);
+                }
+                int[] expected = new int[game.length - 2];
+                System.arraycopy(game, 2, expected, 0, expected.length);
+                assertArrayEquals("The moves of a game differ", expected, moves);
+
+                //the result of the record is the result of the game played again
+                Board board = new Board(reader.getSize(), reader.getWinLength());
+                reader.replay(board, reader.getMoveCount());
+                assertEquals(board.isGameOver(), reader.isFinished());
+                assertEquals(board.isXWinner() ? Board.Value.X : board.isOWinner() ? Board.Value.O : Board.Value.EMPTY,
+                        reader.getWinner());
+            }
+
+            assertFalse("There are more games than were written", reader.next());
+        } finally {
+            reader.close();
+        }
+    }
+
+    //cut the given number of bytes off the end of the file
+    private static void cutOff(File file, int length) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(randomAccessFile.length() - length);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.conichi.tictactoe.server;
+
+import com.conichi.tictactoe.engine.Difficulty;
+import com.conichi.tictactoe.engine.SearchLimits;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.SearchResult;
+import com.conichi.tictactoe.engine.Searcher;
+import com.conichi.tictactoe.entity.Board;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+class GameHandler implements HttpHandler {
+
+    //the seconds a client is asked to wait before trying again, when the AI searches are queued up
+    private static final String RETRY_AFTER = "1";
+
+    private final GameSessions sessions;
+    private final Searcher searcher;
+    private final SearchMetrics metrics;
+
+    //the AI moves are searched on this pool, its queue is bounded, and a move which does not fit the queue is refused
+    //with 503, so the searches never pile up beyond what the pool can answer in time
+    private final ThreadPoolExecutor aiExecutor;
+    private final long timeLimit;
+
+    //the number of requests refused because the AI queue or the sessions were full
+    private final AtomicLong rejected = new AtomicLong();
+
+    GameHandler(GameSessions sessions, Searcher searcher, SearchMetrics metrics, ThreadPoolExecutor aiExecutor,
+                long timeLimit) {
+        this.sessions = sessions;
+        this.searcher = searcher;
+        this.metrics = metrics;
+        this.aiExecutor = aiExecutor;
+        this.timeLimit = timeLimit;
+    }
+
+    //the routes of the api, every response is json:
+    //  POST   /games?size=3&win=3&ai=o&difficulty=hard   create a game, the AI plays X, O or none
+    //  GET    /games/{id}                                get the state of a game
+    //  POST   /games/{id}/moves?cell=4                   play the cell (or x=1&y=1) for the player on move,
+    //                                                    the response comes once the AI has answered
+    //  POST   /games/{id}/ai                             let the AI play the move of the player on move
+    //  DELETE /games/{id}                                end a game
+    //  GET    /stats                                     the sessions, the AI queue and the search metrics
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (path.length == 1 && path[0].equals("stats") && method.equals("GET")) {
+                send(exchange, 200, getStats());
+            } else if (path.length == 1 && path[0].equals("games") && method.equals("POST")) {
+                createGame(exchange, query);
+            } else if (path.length >= 2 && path[0].equals("games")) {
+                GameSession session = sessions.get(path[1]);
+
+                if (session == null) {
+                    sendError(exchange, 404, "Unknown game: " + path[1]);
+                } else if (path.length == 2 && method.equals("GET")) {
+                    String body;
+                    synchronized (session) {
+                        body = session.toJson();
+                    }
+                    send(exchange, 200, body);
+                } else if (path.length == 2 && method.equals("DELETE")) {
+                    sessions.remove(session.getId());
+                    send(exchange, 204, "");
+                } else if (path.length == 3 && path[2].equals("moves") && method.equals("POST")) {
+                    playMove(exchange, session, query);
+                } else if (path.length == 3 && path[2].equals("ai") && method.equals("POST")) {
+                    playAIMove(exchange, session);
+                } else {
+                    sendError(exchange, 404, "Unknown request: " + method + " " + exchange.getRequestURI().getPath());
+                }
+            } else {
+                sendError(exchange, 404, "Unknown request: " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, String.valueOf(e));
+        }
+    }
+
+    private void createGame(HttpExchange exchange, Map<String, String> query) {
+        int size = getInt(query, "size", Board.DEFAULT_SIZE);
+        Board board = new Board(size, getInt(query, "win", Math.min(size, 5)));
+        Board.Value aiValue = getAIValue(query.get("ai"));
+        Difficulty difficulty = getDifficulty(query.get("difficulty"));
+
+        GameSession session = sessions.create(board, aiValue, difficulty);
+        if (session == null) {
+            rejected.incrementAndGet();
+            sendError(exchange, 503, "Too many games");
+            return;
+        }
+
+        String body;
+        synchronized (session) {
+            if (session.isAIOnMove()) {
+                if (!startAIMove(exchange, session, 201)) {
+                    sessions.remove(session.getId());
+                    sendBusy(exchange);
+                }
+                return;
+            }
+
+            body = session.toJson();
+        }
+
+        send(exchange, 201, body);
+    }
+
+    //validate and play the move of a client, then let the AI answer if it is on move
+    private void playMove(HttpExchange exchange, GameSession session, Map<String, String> query) {
+        Board board = session.getBoard();
+        int cell;
+        if (query.containsKey("cell")) {
+            cell = getInt(query, "cell", -1);
+        } else {
+            int x = getInt(query, "x", -1), y = getInt(query, "y", -1);
+            cell = x >= 0 && x < board.getSize() && y >= 0 && y < board.getSize() ? x * board.getSize() + y : -1;
+        }
+
+        if (cell < 0 || cell >= board.getCellCount()) {
+            sendError(exchange, 400, "Invalid cell, it needs a cell from 0 to " + (board.getCellCount() - 1) + " or x and y");
+            return;
+        }
+
+        String conflict = null;
+        String body = null;
+        synchronized (session) {
+            if (session.isThinking()) {
+                conflict = "The AI is thinking";
+            } else if (board.isGameOver()) {
+                conflict = "The game is over";
+            } else if (session.isAIOnMove()) {
+                conflict = "The AI is on move";
+            } else if (board.getValue(cell / board.getSize(), cell % board.getSize()) != Board.Value.EMPTY) {
+                conflict = "The cell " + cell + " is not empty";
+            } else {
+                board.pushMove(cell, session.getPlayerOnMove());
+
+                if (session.isAIOnMove()) {
+                    //if the AI cannot answer now, the move is taken back, so the client can simply try again
+                    if (startAIMove(exchange, session, 200)) {
+                        return;
+                    }
+                    board.undoMove();
+                } else {
+                    body = session.toJson();
+                }
+            }
+        }
+
+        if (conflict != null) {
+            sendError(exchange, 409, conflict);
+        } else if (body == null) {
+            sendBusy(exchange);
+        } else {
+            send(exchange, 200, body);
+        }
+    }
+
+    private void playAIMove(HttpExchange exchange, GameSession session) {
+        String conflict;
+        synchronized (session) {
+            if (session.isThinking()) {
+                conflict = "The AI is thinking";
+            } else if (session.getBoard().isGameOver()) {
+                conflict = "The game is over";
+            } else if (startAIMove(exchange, session, 200)) {
+                return;
+            } else {
+                conflict = null;
+            }
+        }
+
+        if (conflict != null) {
+            sendError(exchange, 409, conflict);
+        } else {
+            sendBusy(exchange);
+        }
+    }
+
+    //queue the search of the AI move of the player on move, it has to be called while holding the lock of the session
+    //the response with the given status is sent once the move is played, and no other move can be played until then
+    //false if the queue is full, then nothing is sent, and the caller refuses the request
+    private boolean startAIMove(final HttpExchange exchange, final GameSession session, final int status) {
+        final Board position = new Board(session.getBoard());
+        final Board.Value player = session.getPlayerOnMove();
+        final SearchLimits limits = new SearchLimits.Builder()
+                .timeLimit(timeLimit)
+                .difficulty(session.getDifficulty())
+                .build();
+
+        session.setThinking(true);
+
+        try {
+            aiExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    String body;
+                    int responseStatus = status;
+
+                    try {
+                        SearchResult result = searcher.bestMove(position, player, limits);
+
+                        synchronized (session) {
+                            session.setThinking(false);
+                            if (result != null) {
+                                session.getBoard().pushMove(result.getMove(), player);
+                            }
+                            body = session.toJson();
+                        }
+                    } catch (RuntimeException e) {
+                        synchronized (session) {
+                            session.setThinking(false);
+                        }
+                        responseStatus = 500;
+                        body = getErrorJson(String.valueOf(e));
+                    }
+
+                    send(exchange, responseStatus, body);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            session.setThinking(false);
+            return false;
+        }
+
+        return true;
+    }
+
+    //refuse the request because the AI searches are queued up, the client is asked to try again later
+    private void sendBusy(HttpExchange exchange) {
+        rejected.incrementAndGet();
+        exchange.getResponseHeaders().set("Retry-After", RETRY_AFTER);
+        sendError(exchange, 503, "The AI is busy");
+    }
+
+    private String getStats() {
+        return "{\"sessions\":" + sessions.size()
+                + ",\"aiThreads\":" + aiExecutor.getPoolSize()
+                + ",\"aiActive\":" + aiExecutor.getActiveCount()
+                + ",\"aiQueued\":" + aiExecutor.getQueue().size()
+                + ",\"rejected\":" + rejected.get()
+                + ",\"search\":" + metrics.toJson()
+                + "}";
+    }
+
+    private static Board.Value getAIValue(String ai) {
+        if (ai == null || ai.equals("none")) {
+            return null;
+        } else if (ai.equals("x")) {
+            return Board.Value.X;
+        } else if (ai.equals("o")) {
+            return Board.Value.O;
+        }
+
+        throw new IllegalArgumentException("Invalid ai, it needs x, o or none: " + ai);
+    }
+
+    private static Difficulty getDifficulty(String difficulty) {
+        if (difficulty == null) {
+            return Difficulty.UNBEATABLE;
+        }
+
+        try {
+            return Difficulty.valueOf(difficulty.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid difficulty: " + difficulty);
+        }
+    }
+
+    private static int getInt(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+
+        try {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+                } else if (!parameter.isEmpty()) {
+                    parameters.put(URLDecoder.decode(parameter, "UTF-8"), "");
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return parameters;
+    }
+
+    private static String getErrorJson(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        send(exchange, status, getErrorJson(message));
+    }
+
+    //send the response and close the exchange, a client which is gone is simply ignored
+    private static void send(HttpExchange exchange, int status, String body) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                exchange.getResponseBody().write(bytes);
+            }
+        } catch (IOException e) {
+            //the client closed the connection
+        } finally {
+            exchange.close();
+        }
+    }
+}
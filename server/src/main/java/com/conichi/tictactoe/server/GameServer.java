@@ -0,0 +1,165 @@
+package com.conichi.tictactoe.server;
+
+import com.conichi.tictactoe.engine.OpeningBook;
+import com.conichi.tictactoe.engine.SearchMetrics;
+import com.conichi.tictactoe.engine.Searcher;
+import com.conichi.tictactoe.engine.TranspositionTable;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class GameServer {
+
+    private static final String USAGE = "Usage: tictactoe-server [options]\n"
+            + "\n"
+            + "Hosts games over http, see GameHandler for the api.\n"
+            + "\n"
+            + "Options:\n"
+            + "  --host HOST          address to listen on, localhost by default\n"
+            + "  --port N             port to listen on, 8080 by default\n"
+            + "  --http-threads N     threads answering the requests, 2 by default\n"
+            + "  --threads N          threads searching the AI moves, the number of processors by default\n"
+            + "  --queue N            AI moves which may wait for a thread, 256 by default, the rest are refused with 503\n"
+            + "  --time MS            time limit of an AI move, 1000 by default\n"
+            + "  --table N            transposition table entries of every AI thread, 65536 by default\n"
+            + "  --book               play the 3x3 moves of the unbeatable AI from the opening book\n"
+            + "  --max-games N        most games at the same time, 100000 by default\n"
+            + "  --idle S             seconds after which an unused game is removed, 600 by default";
+
+    //the responses are small, so without TCP_NODELAY every response waits for the delayed ack of the client,
+    //which adds around 40 ms to every request, the property is read once, when the first server is created
+    static {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService httpExecutor;
+    private final ThreadPoolExecutor aiExecutor;
+    private final ScheduledExecutorService cleaner;
+
+    //the requests are read by the event loop of the http server and answered by a few threads, which never search,
+    //so a game costs no thread at all, and only the AI moves take a thread of the AI pool while they are searched
+    public GameServer(Map<String, String> options) throws IOException {
+        int threads = getInt(options, "threads", Runtime.getRuntime().availableProcessors(), 1);
+        int queue = getInt(options, "queue", 256, 1);
+        final long idleNanos = TimeUnit.SECONDS.toNanos(getInt(options, "idle", 600, 1));
+
+        SearchMetrics metrics = new SearchMetrics();
+        Searcher searcher = new Searcher.Builder()
+                .openingBook(options.containsKey("book") ? OpeningBook.generate() : null)
+                .transpositionTable(getInt(options, "table", 1 << 16, 1), TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED)
+                .metrics(metrics)
+                .build();
+
+        final GameSessions sessions = new GameSessions(getInt(options, "max-games", 100000, 1));
+        aiExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(queue));
+        httpExecutor = Executors.newFixedThreadPool(getInt(options, "http-threads", 2, 1));
+
+        String host = options.containsKey("host") ? options.get("host") : "localhost";
+        server = HttpServer.create(new InetSocketAddress(host, getInt(options, "port", 8080, 0)), 0);
+        server.createContext("/", new GameHandler(sessions, searcher, metrics, aiExecutor, getInt(options, "time", 1000, 0)));
+        server.setExecutor(httpExecutor);
+
+        cleaner = Executors.newSingleThreadScheduledExecutor();
+        cleaner.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                sessions.removeIdle(idleNanos);
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    //stop accepting requests, and give the requests in progress a second to finish
+    public void stop() {
+        server.stop(1);
+        cleaner.shutdownNow();
+        aiExecutor.shutdownNow();
+        httpExecutor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options;
+        final GameServer server;
+
+        try {
+            options = parseOptions(args);
+            if (options.containsKey("help")) {
+                System.out.println(USAGE);
+                return;
+            }
+
+            server = new GameServer(options);
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println();
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                server.stop();
+            }
+        });
+
+        server.start();
+        System.err.println("listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    //parse options like --port 8080, where an option without a value is a flag like --book
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+
+            String name = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(name, args[++i]);
+            } else {
+                options.put(name, "");
+            }
+        }
+
+        return options;
+    }
+
+    private static int getInt(Map<String, String> options, String name, int defaultValue, int minimum) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            int number = Integer.parseInt(value);
+            if (number < minimum) {
+                throw new IllegalArgumentException("--" + name + " needs at least " + minimum + ": " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " needs a number: " + value);
+        }
+    }
+}
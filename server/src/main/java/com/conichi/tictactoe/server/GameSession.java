@@ -0,0 +1,117 @@
+package com.conichi.tictactoe.server;
+
+import com.conichi.tictactoe.engine.Difficulty;
+import com.conichi.tictactoe.entity.Board;
+
+import java.util.Locale;
+
+class GameSession {
+
+    //the session is changed by the request threads and the AI threads, always while holding its lock
+    private final String id;
+    private final Board board;
+
+    //the value of the AI player, which is null if two clients play against each other, and the level it plays at
+    private final Board.Value aiValue;
+    private final Difficulty difficulty;
+
+    //whether an AI move of the session is being searched, no move can be played until it is done
+    private boolean thinking;
+
+    //the time of the last request of the session, in System.nanoTime(), idle sessions get removed
+    private volatile long lastAccessTime = System.nanoTime();
+
+    GameSession(String id, Board board, Board.Value aiValue, Difficulty difficulty) {
+        this.id = id;
+        this.board = board;
+        this.aiValue = aiValue;
+        this.difficulty = difficulty;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    Board getBoard() {
+        return board;
+    }
+
+    Board.Value getAIValue() {
+        return aiValue;
+    }
+
+    Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    boolean isThinking() {
+        return thinking;
+    }
+
+    void setThinking(boolean thinking) {
+        this.thinking = thinking;
+    }
+
+    long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    void touch() {
+        lastAccessTime = System.nanoTime();
+    }
+
+    //X always plays first, so the player on move follows from the number of moves
+    Board.Value getPlayerOnMove() {
+        return board.getMoveCount() % 2 == 0 ? Board.Value.X : Board.Value.O;
+    }
+
+    //check if the AI of the session plays the next move
+    boolean isAIOnMove() {
+        return aiValue == getPlayerOnMove() && !board.isGameOver();
+    }
+
+    //get the state of the session as a json object, it has to be called while holding the lock of the session
+    String toJson() {
+        StringBuilder cells = new StringBuilder();
+        StringBuilder moves = new StringBuilder();
+        int size = board.getSize();
+
+        for (int x = 0; x < size; x++) {
+            if (x > 0) {
+                cells.append('/');
+            }
+            for (int y = 0; y < size; y++) {
+                Board.Value value = board.getValue(x, y);
+                cells.append(value == Board.Value.X ? 'x' : value == Board.Value.O ? 'o' : '.');
+            }
+        }
+
+        for (int i = 0; i < board.getHistorySize(); i++) {
+            moves.append(i > 0 ? "," : "").append(board.getHistoryCell(i));
+        }
+
+        return "{\"id\":\"" + id + "\""
+                + ",\"size\":" + size
+                + ",\"winLength\":" + board.getWinLength()
+                + ",\"ai\":" + (aiValue == null ? "null" : "\"" + aiValue.name().toLowerCase(Locale.ROOT) + "\"")
+                + ",\"difficulty\":\"" + difficulty.name().toLowerCase(Locale.ROOT) + "\""
+                + ",\"board\":\"" + cells + "\""
+                + ",\"moves\":[" + moves + "]"
+                + ",\"toMove\":\"" + getPlayerOnMove().name().toLowerCase(Locale.ROOT) + "\""
+                + ",\"status\":\"" + getStatus() + "\""
+                + ",\"thinking\":" + thinking
+                + "}";
+    }
+
+    private String getStatus() {
+        if (board.isXWinner()) {
+            return "x_won";
+        } else if (board.isOWinner()) {
+            return "o_won";
+        } else if (board.isGameDrawn()) {
+            return "draw";
+        }
+
+        return "playing";
+    }
+}
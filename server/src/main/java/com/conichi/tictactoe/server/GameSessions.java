@@ -0,0 +1,72 @@
+package com.conichi.tictactoe.server;
+
+import com.conichi.tictactoe.engine.Difficulty;
+import com.conichi.tictactoe.entity.Board;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+class GameSessions {
+
+    //the sessions by their ids, which are random, so a client cannot guess the id of another game
+    private final ConcurrentMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    //the most sessions kept at the same time, a new game is refused once there are that many
+    private final int maxSessions;
+
+    GameSessions(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    //create a session of a new game, or return null if there are too many sessions already
+    GameSession create(Board board, Board.Value aiValue, Difficulty difficulty) {
+        if (sessions.size() >= maxSessions) {
+            return null;
+        }
+
+        while (true) {
+            String id = Long.toHexString(random.nextLong() & Long.MAX_VALUE);
+            GameSession session = new GameSession(id, board, aiValue, difficulty);
+
+            if (sessions.putIfAbsent(id, session) == null) {
+                return session;
+            }
+        }
+    }
+
+    //get the session with the given id, or null if there is none, the session counts as used
+    GameSession get(String id) {
+        GameSession session = sessions.get(id);
+        if (session != null) {
+            session.touch();
+        }
+
+        return session;
+    }
+
+    boolean remove(String id) {
+        return sessions.remove(id) != null;
+    }
+
+    //remove the sessions which were not used for the given time, and get their number
+    int removeIdle(long maxIdleNanos) {
+        long now = System.nanoTime();
+        int removed = 0;
+
+        for (Iterator<GameSession> iterator = sessions.values().iterator(); iterator.hasNext(); ) {
+            if (now - iterator.next().getLastAccessTime() > maxIdleNanos) {
+                iterator.remove();
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+}